@@ -0,0 +1,61 @@
+package com.xin.logRecord.benchmark;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.SourceLocation;
+
+/**
+ * 只提供方法参数的JoinPoint，用于脱离AOP单独测试解析器
+ */
+public class ArgsJoinPoint implements JoinPoint {
+    private final Object[] args;
+
+    public ArgsJoinPoint(Object... args) {
+        this.args = args;
+    }
+
+    @Override
+    public Object[] getArgs() {
+        return args;
+    }
+
+    @Override
+    public String toShortString() {
+        return toString();
+    }
+
+    @Override
+    public String toLongString() {
+        return toString();
+    }
+
+    @Override
+    public Object getThis() {
+        return null;
+    }
+
+    @Override
+    public Object getTarget() {
+        return null;
+    }
+
+    @Override
+    public Signature getSignature() {
+        return null;
+    }
+
+    @Override
+    public SourceLocation getSourceLocation() {
+        return null;
+    }
+
+    @Override
+    public String getKind() {
+        return JoinPoint.METHOD_EXECUTION;
+    }
+
+    @Override
+    public StaticPart getStaticPart() {
+        return null;
+    }
+}
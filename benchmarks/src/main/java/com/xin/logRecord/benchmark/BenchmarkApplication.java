@@ -0,0 +1,30 @@
+package com.xin.logRecord.benchmark;
+
+import com.xin.logRecord.service.LogRecordBatchService;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+
+import java.util.concurrent.atomic.LongAdder;
+
+@SpringBootApplication
+public class BenchmarkApplication {
+    public static final LongAdder RECORDED = new LongAdder();
+
+    @Bean
+    public BenchmarkService benchmarkService() {
+        return new BenchmarkService();
+    }
+
+    @Bean
+    public BenchmarkFunctions benchmarkFunctions() {
+        return new BenchmarkFunctions();
+    }
+
+    /**
+     * 只计数不输出，避免日志框架的开销干扰测试结果
+     */
+    @Bean
+    public LogRecordBatchService countingLogRecordBatchService() {
+        return logRecordDTOs -> RECORDED.add(logRecordDTOs.size());
+    }
+}
@@ -0,0 +1,23 @@
+package com.xin.logRecord.benchmark;
+
+import com.xin.logRecord.annotation.LogRecordFunction;
+
+/**
+ * 模拟业务中较重的自定义函数
+ */
+public class BenchmarkFunctions {
+
+    @LogRecordFunction
+    public static String describe(BenchmarkService.Order order) {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            description.append(order.getId()).append('-').append(order.getAmount() * i).append(';');
+        }
+        return description.toString();
+    }
+
+    @LogRecordFunction
+    public static String operatorName(String operator) {
+        return operator.toUpperCase();
+    }
+}
@@ -0,0 +1,52 @@
+package com.xin.logRecord.benchmark;
+
+import com.xin.logRecord.annotation.LogRecord;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 被测的业务方法，plain为未被增强的基准
+ */
+public class BenchmarkService {
+
+    public String plain(Order order) {
+        return order.getId();
+    }
+
+    @LogRecord(success = "'用户'+#order.operator+'创建了订单'+#order.id", bizId = "#order.id", bizType = "'order'")
+    public String one(Order order) {
+        return order.getId();
+    }
+
+    @LogRecord(success = "'用户'+#order.operator+'创建了订单'+#order.id", bizId = "#order.id", bizType = "'order'")
+    @LogRecord(success = "'订单金额'+#order.amount", bizId = "#order.id", bizType = "'amount'", operatorId = "#order.operator")
+    @LogRecord(success = "'订单'+#order.id+'已入库'", bizId = "#order.id", bizType = "'stock'", extra = "#order.amount")
+    public String several(Order order) {
+        return order.getId();
+    }
+
+    @LogRecord(success = "'用户'+#order.operator+'创建了订单'+#order.id", bizId = "#order.id", executeBeforeFunc = false)
+    public String after(Order order) {
+        return order.getId();
+    }
+
+    @LogRecord(success = "'用户'+#order.operator+'创建了订单'+#order.id", bizId = "#order.id", condition = "#order.amount > 0")
+    public String conditional(Order order) {
+        return order.getId();
+    }
+
+    @LogRecord(success = "'订单'+#describe(#order)+'，操作人'+#operatorName(#order.operator)", bizId = "#order.id")
+    public String heavyFunction(Order order) {
+        return order.getId();
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Order {
+        private String id;
+
+        private String operator;
+
+        private long amount;
+    }
+}
@@ -0,0 +1,88 @@
+package com.xin.logRecord.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LogAspect.doAround的单次调用开销，与未被增强的plain方法对比
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogAspectBenchmark {
+    private ConfigurableApplicationContext context;
+
+    private BenchmarkService proxied;
+
+    private BenchmarkService plain;
+
+    private BenchmarkService.Order order;
+
+    private BenchmarkService.Order skippedOrder;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run("--logging.level.root=WARN");
+        proxied = context.getBean(BenchmarkService.class);
+        plain = new BenchmarkService();
+        order = new BenchmarkService.Order("20220516", "xiaoming", 100);
+        skippedOrder = new BenchmarkService.Order("20220517", "xiaoming", 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String baseline() {
+        return plain.plain(order);
+    }
+
+    @Benchmark
+    public String proxiedWithoutAnnotation() {
+        return proxied.plain(order);
+    }
+
+    @Benchmark
+    public String oneAnnotation() {
+        return proxied.one(order);
+    }
+
+    @Benchmark
+    public String severalAnnotations() {
+        return proxied.several(order);
+    }
+
+    @Benchmark
+    public String executeAfterFunc() {
+        return proxied.after(order);
+    }
+
+    @Benchmark
+    public String conditionMatched() {
+        return proxied.conditional(order);
+    }
+
+    @Benchmark
+    public String conditionNotMatched() {
+        return proxied.conditional(skippedOrder);
+    }
+
+    @Benchmark
+    public String heavyFunction() {
+        return proxied.heavyFunction(order);
+    }
+}
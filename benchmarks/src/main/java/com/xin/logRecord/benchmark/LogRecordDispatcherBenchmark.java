@@ -0,0 +1,93 @@
+package com.xin.logRecord.benchmark;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+import com.xin.logRecord.configuration.LogRecordProperties;
+import com.xin.logRecord.constant.DispatcherType;
+import com.xin.logRecord.dispatch.BatchingLogRecordDispatcher;
+import com.xin.logRecord.dispatch.ExecutorLogRecordDispatcher;
+import com.xin.logRecord.dispatch.LogRecordDispatcher;
+import com.xin.logRecord.dispatch.LogRecordSinkInvoker;
+import com.xin.logRecord.dispatch.RingBufferLogRecordDispatcher;
+import com.xin.logRecord.dispatch.StripedLogRecordDispatcher;
+import com.xin.logRecord.metrics.LogRecordMetrics;
+import com.xin.logRecord.thread.LogRecordThreadPool;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 不同分发方式在不同并发线程数下的分发吞吐
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogRecordDispatcherBenchmark {
+    @Param({"EXECUTOR", "BATCH", "RING_BUFFER", "STRIPED"})
+    private DispatcherType dispatcherType;
+
+    private final LongAdder recorded = new LongAdder();
+
+    private LogRecordThreadPool logRecordThreadPool;
+
+    private LogRecordDispatcher dispatcher;
+
+    private LogRecordDTO logRecordDTO;
+
+    @Setup
+    public void setup() {
+        LogRecordProperties properties = new LogRecordProperties();
+        LogRecordMetrics metrics = new LogRecordMetrics(properties,
+                new StaticListableBeanFactory().getBeanProvider(LogRecordDispatcher.class));
+        logRecordThreadPool = new LogRecordThreadPool(properties, metrics);
+        LogRecordSinkInvoker sinkInvoker = new LogRecordSinkInvoker(logRecordDTOs -> recorded.add(logRecordDTOs.size()), metrics);
+        switch (dispatcherType) {
+            case BATCH:
+                dispatcher = new BatchingLogRecordDispatcher(logRecordThreadPool, sinkInvoker, properties.getBatch());
+                break;
+            case RING_BUFFER:
+                dispatcher = new RingBufferLogRecordDispatcher(sinkInvoker, properties.getRingBuffer());
+                break;
+            case STRIPED:
+                dispatcher = new StripedLogRecordDispatcher(logRecordThreadPool, sinkInvoker, properties.getStriped());
+                break;
+            default:
+                dispatcher = new ExecutorLogRecordDispatcher(logRecordThreadPool, sinkInvoker);
+        }
+        logRecordDTO = LogRecordDTO.builder()
+                .logId("benchmark")
+                .operateDate(new Date())
+                .bizId("20220516")
+                .success(true)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+        logRecordThreadPool.destroy();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void dispatch1Thread() {
+        dispatcher.dispatch(logRecordDTO);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void dispatch4Threads() {
+        dispatcher.dispatch(logRecordDTO);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void dispatch16Threads() {
+        dispatcher.dispatch(logRecordDTO);
+    }
+}
@@ -0,0 +1,49 @@
+package com.xin.logRecord.benchmark;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+import com.xin.logRecord.beans.LogRecordMethodDescriptor;
+import com.xin.logRecord.beans.LogRecordOperation;
+import com.xin.logRecord.context.LogRecordContext;
+import com.xin.logRecord.function.LogRecordFunctionRegister;
+import com.xin.logRecord.parse.LogRecordExpressionCache;
+import com.xin.logRecord.parse.LogRecordExpressionParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 脱离AOP单独测试LogRecordExpressionParser的解析与模板渲染
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogRecordExpressionParserBenchmark {
+    @Param({"one", "several", "heavyFunction"})
+    private String method;
+
+    private LogRecordMethodDescriptor descriptor;
+
+    private ArgsJoinPoint joinPoint;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        new LogRecordFunctionRegister().postProcessBeforeInitialization(new BenchmarkFunctions(), "benchmarkFunctions");
+        descriptor = new LogRecordMethodDescriptor(BenchmarkService.class.getMethod(method, BenchmarkService.Order.class), new LogRecordExpressionCache());
+        joinPoint = new ArgsJoinPoint(new BenchmarkService.Order("20220516", "xiaoming", 100));
+    }
+
+    @Benchmark
+    public String parseAndRender() {
+        String msg = null;
+        for (LogRecordOperation operation : descriptor.getBeforeOperations()) {
+            LogRecordDTO logRecordDTO = LogRecordExpressionParser.parseExpress(operation, joinPoint, descriptor.getParameterNames());
+            LogRecordExpressionParser.parseExpressTemplate(operation, logRecordDTO);
+            msg = logRecordDTO.getMsg();
+        }
+        LogRecordContext.clearContext();
+        return msg;
+    }
+}
@@ -0,0 +1,56 @@
+package com.xin.logRecord.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spring AOP代理(PROXY)与AspectJ编译期织入(ASPECTJ)的单次调用开销对比，两者的解析与分发逻辑相同
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogRecordWeavingBenchmark {
+    @Param({"PROXY", "ASPECTJ"})
+    private String weaving;
+
+    private ConfigurableApplicationContext context;
+
+    private BenchmarkService service;
+
+    private BenchmarkService.Order order;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run("--logging.level.root=WARN", "--log-record.weaving=" + weaving);
+        // ASPECTJ模式下不创建代理，直接调用织入后的对象
+        service = "PROXY".equals(weaving) ? context.getBean(BenchmarkService.class) : new WovenBenchmarkService();
+        order = new BenchmarkService.Order("20220516", "xiaoming", 100);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String oneAnnotation() {
+        return service.one(order);
+    }
+
+    @Benchmark
+    public String severalAnnotations() {
+        return service.several(order);
+    }
+}
@@ -0,0 +1,23 @@
+package com.xin.logRecord.benchmark;
+
+import com.xin.logRecord.annotation.LogRecord;
+
+/**
+ * 由aspectj-maven-plugin在编译期织入LogRecordWovenAspect，注解需声明在实际执行的方法上
+ */
+public class WovenBenchmarkService extends BenchmarkService {
+
+    @Override
+    @LogRecord(success = "'用户'+#order.operator+'创建了订单'+#order.id", bizId = "#order.id", bizType = "'order'")
+    public String one(Order order) {
+        return order.getId();
+    }
+
+    @Override
+    @LogRecord(success = "'用户'+#order.operator+'创建了订单'+#order.id", bizId = "#order.id", bizType = "'order'")
+    @LogRecord(success = "'订单金额'+#order.amount", bizId = "#order.id", bizType = "'amount'", operatorId = "#order.operator")
+    @LogRecord(success = "'订单'+#order.id+'已入库'", bizId = "#order.id", bizType = "'stock'", extra = "#order.amount")
+    public String several(Order order) {
+        return order.getId();
+    }
+}
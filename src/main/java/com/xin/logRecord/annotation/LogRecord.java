@@ -33,4 +33,10 @@ public @interface LogRecord {
 
     // 是否在方法执行前对SpEL进行解析
     boolean executeBeforeFunc() default true;
+
+    // 是否在日志线程中解析模板并执行后置处理，调用线程只保存参数、返回值、异常与上下文变量的快照
+    boolean deferred() default false;
+
+    // 延迟解析时在调用线程上立即读取的字段，格式为"参数名.属性路径"(返回值为"_ret.属性路径")，只写参数名表示浅拷贝该参数
+    String[] snapshotFields() default {};
 }
@@ -0,0 +1,262 @@
+package com.xin.logRecord.aop;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+import com.xin.logRecord.beans.LogRecordDeferredTask;
+import com.xin.logRecord.beans.LogRecordMethodDescriptor;
+import com.xin.logRecord.beans.LogRecordOperation;
+import com.xin.logRecord.beans.LogRecordPostProcessor;
+import com.xin.logRecord.configuration.LogRecordProperties;
+import com.xin.logRecord.constant.WeavingMode;
+import com.xin.logRecord.context.LogRecordContext;
+import com.xin.logRecord.context.LogRecordEvaluationContext;
+import com.xin.logRecord.dispatch.LogRecordDispatcher;
+import com.xin.logRecord.limit.LogRecordAdmission;
+import com.xin.logRecord.metrics.LogRecordMetrics;
+import com.xin.logRecord.metrics.LogRecordStage;
+import com.xin.logRecord.parse.LogRecordExpressionCache;
+import com.xin.logRecord.parse.LogRecordExpressionParser;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodClassKey;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @LogRecord的增强逻辑，由Spring AOP代理模式的LogAspect与AspectJ织入模式的LogRecordWovenAspect共用
+ */
+@Slf4j
+@Component
+public class LogRecordAspectSupport {
+    /**
+     * LogRecord后置处理器
+     */
+    @Autowired(required = false)
+    private LogRecordPostProcessor logRecordPostProcessor;
+
+    /**
+     * 日志分发器，负责将logRecordDTO交给日志记录服务
+     */
+    @Autowired
+    private LogRecordDispatcher logRecordDispatcher;
+
+    @Autowired
+    private LogRecordMetrics logRecordMetrics;
+
+    /**
+     * 开关、采样与限流判断，在SpEL解析前执行
+     */
+    @Autowired
+    private LogRecordAdmission logRecordAdmission;
+
+    @Autowired
+    private LogRecordProperties logRecordProperties;
+
+    @Autowired
+    private LogRecordExpressionCache logRecordExpressionCache;
+
+    /**
+     * (目标类, 方法) -> 方法描述，反射相关工作只在首次调用时进行
+     */
+    private final Map<MethodClassKey, LogRecordMethodDescriptor> descriptorCache = new ConcurrentHashMap<>(64);
+
+    @PostConstruct
+    public void bindWovenAspect() {
+        if (logRecordProperties.getWeaving() == WeavingMode.ASPECTJ) {
+            LogRecordWovenAspect.bind(this);
+        }
+    }
+
+    @PreDestroy
+    public void unbindWovenAspect() {
+        LogRecordWovenAspect.unbind(this);
+    }
+
+    /**
+     * 执行被增强的方法，并在其前后解析注解、分发日志
+     */
+    public Object invoke(ProceedingJoinPoint point, LogRecordMethodDescriptor descriptor) throws Throwable {
+        Object result = null;
+        Throwable failure = null;
+        boolean async = false;
+        String[] parameterNames = descriptor.getParameterNames();
+        // 将前置和后置执行分开处理并保证顺序
+        Map<LogRecordOperation, LogRecordDTO> logDTOMap = new LinkedHashMap<>();
+
+        long startNanos = 0;
+        // 每次调用压入独立的上下文帧，嵌套调用不会清除外层方法的变量
+        LogRecordContext.pushFrame();
+        try {
+            // 方法执行前进行SpEL解析和logDTOMap装配
+            long preParseStart = logRecordMetrics.startTime();
+            for (LogRecordOperation operation : descriptor.getBeforeOperations()) {
+                if (!logRecordAdmission.admit(descriptor, operation)) {
+                    continue;
+                }
+                LogRecordDTO logRecordDTO = LogRecordExpressionParser.parseExpress(operation, point, parameterNames);
+                if (logRecordDTO != null) {
+                    logDTOMap.put(operation, logRecordDTO);
+                }
+            }
+            if (!descriptor.getBeforeOperations().isEmpty()) {
+                logRecordMetrics.recordStage(LogRecordStage.PRE_PARSE, preParseStart);
+            }
+
+            // 方法执行时间计时
+            startNanos = System.nanoTime();
+            result = point.proceed();
+
+            // 返回CompletableFuture、Mono、Flux时在其完成时再解析和分发，不阻塞也不切换线程
+            if (LogRecordAsyncSupport.isAsync(result)) {
+                LogRecordContext.Snapshot snapshot = LogRecordContext.capture();
+                result = LogRecordAsyncSupport.onComplete(result, startNanos, (value, error, executionNanos) -> {
+                    try (LogRecordContext.Scope ignored = snapshot.restore()) {
+                        complete(point, descriptor, logDTOMap, value, error, executionNanos);
+                    } catch (RuntimeException e) {
+                        log.error("LogRecordAspectSupport async complete error", e);
+                    }
+                });
+                async = true;
+            }
+        } catch (Throwable throwable) {
+            failure = throwable;
+            throw throwable;
+        } finally {
+            if (!async) {
+                complete(point, descriptor, logDTOMap, result, failure, startNanos == 0 ? 0 : System.nanoTime() - startNanos);
+            }
+            // 弹出本次调用的上下文帧，最外层调用退出时清除全部上下文
+            LogRecordContext.popFrame();
+        }
+        return result;
+    }
+
+    /**
+     * 方法执行完成(异步方法为返回值完成)后解析后置注解、模板并分发
+     */
+    private void complete(JoinPoint point, LogRecordMethodDescriptor descriptor, Map<LogRecordOperation, LogRecordDTO> logDTOMap,
+                          Object result, Throwable failure, long executionNanos) {
+        if (failure == null) {
+            LogRecordContext.putVariable(LogRecordContext.RETURN_VALUE_VARIABLE, result);
+
+            // 方法执行后进行SpEL解析和logDTOMap装配
+            long postParseStart = logRecordMetrics.startTime();
+            for (LogRecordOperation operation : descriptor.getAfterOperations()) {
+                if (!logRecordAdmission.admit(descriptor, operation)) {
+                    continue;
+                }
+                LogRecordDTO logRecordDTO = LogRecordExpressionParser.parseExpress(operation, point, descriptor.getParameterNames());
+                if (logRecordDTO != null) {
+                    logDTOMap.put(operation, logRecordDTO);
+                }
+            }
+            if (!descriptor.getAfterOperations().isEmpty()) {
+                logRecordMetrics.recordStage(LogRecordStage.POST_PARSE, postParseStart);
+            }
+        } else {
+            // 方法执行有异常，写入异常信息并采用失败的文本模板
+            logDTOMap.values().forEach(logRecordDTO -> {
+                logRecordDTO.setSuccess(false);
+                logRecordDTO.setException(failure.getMessage());
+            });
+        }
+
+        // logDtoMap最终装配，延迟解析的注解只保存快照，模板解析与后置处理交给日志线程
+        long executionTime = TimeUnit.NANOSECONDS.toMillis(executionNanos);
+        LogRecordProperties.Deferred deferred = logRecordProperties.getDeferred();
+        boolean hasSynchronous = false;
+        long templateStart = logRecordMetrics.startTime();
+        for (Map.Entry<LogRecordOperation, LogRecordDTO> entry : logDTOMap.entrySet()) {
+            LogRecordOperation operation = entry.getKey();
+            LogRecordDTO logRecordDTO = entry.getValue();
+            logRecordDTO.setExecutionTime(executionTime);
+            if (deferred.isEnabled() || operation.isDeferred()) {
+                LogRecordEvaluationContext snapshot = LogRecordContext.getContext().snapshot(deferred.getSnapshotStrategy(), operation.getSnapshotFields());
+                logRecordDTO.setDeferredTask(newDeferredTask(operation, snapshot));
+            } else {
+                LogRecordExpressionParser.parseExpressTemplate(operation, logRecordDTO);
+                hasSynchronous = true;
+            }
+        }
+        if (hasSynchronous) {
+            logRecordMetrics.recordStage(LogRecordStage.TEMPLATE, templateStart);
+            // 扩展点 postProcessAfterInitialization
+            if (logRecordPostProcessor != null) {
+                long postProcessorStart = logRecordMetrics.startTime();
+                logDTOMap.values().forEach(logRecordDTO -> {
+                    if (!logRecordDTO.hasDeferredTask()) {
+                        postProcess(logRecordDTO);
+                    }
+                });
+                logRecordMetrics.recordStage(LogRecordStage.POST_PROCESSOR, postProcessorStart);
+            }
+        }
+        // 分发给日志记录服务
+        logDTOMap.forEach((operation, logRecordDTO) -> {
+            logRecordMetrics.recordDispatched(logRecordDTO.getBizType());
+            logRecordDispatcher.dispatch(logRecordDTO);
+        });
+    }
+
+    // 在日志线程中使用快照解析模板并执行后置处理
+    private LogRecordDeferredTask newDeferredTask(LogRecordOperation operation, LogRecordEvaluationContext snapshot) {
+        return logRecordDTO -> {
+            long templateStart = logRecordMetrics.startTime();
+            LogRecordExpressionParser.parseExpressTemplate(operation, logRecordDTO, snapshot);
+            logRecordMetrics.recordStage(LogRecordStage.TEMPLATE, templateStart);
+            if (logRecordPostProcessor != null) {
+                long postProcessorStart = logRecordMetrics.startTime();
+                postProcess(logRecordDTO);
+                logRecordMetrics.recordStage(LogRecordStage.POST_PROCESSOR, postProcessorStart);
+            }
+        };
+    }
+
+    private void postProcess(LogRecordDTO logRecordDTO) {
+        try {
+            logRecordPostProcessor.postProcessAfterInitialization(logRecordDTO);
+        } catch (Exception e) {
+            log.error("LogRecordAspectSupport logRecordPostProcessor error", e);
+        }
+    }
+
+    // 根据joinPoint获取其方法描述，同一(目标类, 方法)只构建一次
+    public LogRecordMethodDescriptor getDescriptor(JoinPoint joinPoint) {
+        Method signatureMethod = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> targetClass = joinPoint.getTarget().getClass();
+        MethodClassKey key = new MethodClassKey(signatureMethod, targetClass);
+        LogRecordMethodDescriptor descriptor = descriptorCache.get(key);
+        if (descriptor == null) {
+            descriptor = descriptorCache.computeIfAbsent(key, k -> newDescriptor(getMethod(joinPoint)));
+        }
+        return descriptor;
+    }
+
+    // 构建方法描述，注解中的表达式在此时解析
+    public LogRecordMethodDescriptor newDescriptor(Method method) {
+        return new LogRecordMethodDescriptor(method, logRecordExpressionCache);
+    }
+
+    // 根据joinPoint获取其方法
+    public Method getMethod(JoinPoint joinPoint) {
+        Signature signature = joinPoint.getSignature();
+        MethodSignature ms = (MethodSignature) signature;
+        Method method = ms.getMethod();
+        try {
+            Object target = joinPoint.getTarget();
+            method = target.getClass().getMethod(ms.getName(), ms.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            log.error("LogRecordAspectSupport getMethod error", e);
+        }
+        return method;
+    }
+}
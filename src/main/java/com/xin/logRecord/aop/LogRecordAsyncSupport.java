@@ -0,0 +1,62 @@
+package com.xin.logRecord.aop;
+
+import org.springframework.util.ClassUtils;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 异步返回值的完成回调：CompletionStage以及classpath中存在Reactor时的Mono、Flux
+ * 回调在完成信号所在的线程上执行，不额外切换线程
+ */
+final class LogRecordAsyncSupport {
+    private static final boolean reactorPresent = ClassUtils.isPresent("reactor.core.publisher.Mono", LogRecordAsyncSupport.class.getClassLoader());
+
+    private LogRecordAsyncSupport() {
+    }
+
+    static boolean isAsync(Object result) {
+        return result instanceof CompletionStage || (reactorPresent && LogRecordReactorSupport.isReactive(result));
+    }
+
+    /**
+     * 注册完成回调，Reactor类型返回包装后的发布者，CompletionStage返回原对象
+     */
+    static Object onComplete(Object result, long startNanos, CompletionCallback callback) {
+        CompletionCallback once = once(callback);
+        if (result instanceof CompletionStage) {
+            ((CompletionStage<?>) result).whenComplete((value, error) ->
+                    once.onComplete(value, unwrap(error), System.nanoTime() - startNanos));
+            return result;
+        }
+        return LogRecordReactorSupport.onComplete(result, once);
+    }
+
+    // Reactor类型可被多次订阅，只记录第一次完成
+    private static CompletionCallback once(CompletionCallback callback) {
+        AtomicBoolean completed = new AtomicBoolean();
+        return (value, error, executionNanos) -> {
+            if (completed.compareAndSet(false, true)) {
+                callback.onComplete(value, error, executionNanos);
+            }
+        };
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    @FunctionalInterface
+    interface CompletionCallback {
+        /**
+         * @param value          完成时的值，Flux为null
+         * @param error          异常完成时的异常，取消时为CancellationException
+         * @param executionNanos 执行耗时，Reactor类型从订阅开始计算
+         */
+        void onComplete(Object value, Throwable error, long executionNanos);
+    }
+}
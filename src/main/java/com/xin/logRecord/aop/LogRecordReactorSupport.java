@@ -0,0 +1,39 @@
+package com.xin.logRecord.aop;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reactor相关的处理单独放在此类，仅在Reactor位于classpath时加载
+ */
+final class LogRecordReactorSupport {
+    private LogRecordReactorSupport() {
+    }
+
+    static boolean isReactive(Object result) {
+        return result instanceof Mono || result instanceof Flux;
+    }
+
+    static Object onComplete(Object result, LogRecordAsyncSupport.CompletionCallback callback) {
+        AtomicLong subscribeNanos = new AtomicLong();
+        if (result instanceof Mono) {
+            return ((Mono<?>) result)
+                    .doOnSubscribe(subscription -> subscribeNanos.compareAndSet(0, System.nanoTime()))
+                    .doOnSuccess(value -> callback.onComplete(value, null, elapsed(subscribeNanos)))
+                    .doOnError(error -> callback.onComplete(null, error, elapsed(subscribeNanos)))
+                    .doOnCancel(() -> callback.onComplete(null, new CancellationException("cancelled"), elapsed(subscribeNanos)));
+        }
+        return ((Flux<?>) result)
+                .doOnSubscribe(subscription -> subscribeNanos.compareAndSet(0, System.nanoTime()))
+                .doOnComplete(() -> callback.onComplete(null, null, elapsed(subscribeNanos)))
+                .doOnError(error -> callback.onComplete(null, error, elapsed(subscribeNanos)))
+                .doOnCancel(() -> callback.onComplete(null, new CancellationException("cancelled"), elapsed(subscribeNanos)));
+    }
+
+    private static long elapsed(AtomicLong subscribeNanos) {
+        return System.nanoTime() - subscribeNanos.get();
+    }
+}
@@ -0,0 +1,48 @@
+package com.xin.logRecord.aop;
+
+import com.xin.logRecord.beans.LogRecordMethodDescriptor;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AspectJ织入模式(log-record.weaving=ASPECTJ)下的切面，通过aspectj-maven-plugin编译期织入或aop.xml加载期织入
+ * 织入到@LogRecord方法体内，不经过代理，同一个bean内部的自调用、非Spring管理的对象同样会被记录；
+ * 方法描述以每个织入点唯一的JoinPoint.StaticPart为key缓存，不再按(目标类, 方法)查找
+ * 未织入的类不受影响；Spring容器未启动或为PROXY模式时直接执行原方法
+ */
+@Aspect
+public class LogRecordWovenAspect {
+    private static volatile LogRecordAspectSupport logRecordAspectSupport;
+
+    private static final Map<JoinPoint.StaticPart, LogRecordMethodDescriptor> descriptorCache = new ConcurrentHashMap<>(64);
+
+    @Around("execution(@com.xin.logRecord.annotation.LogRecord * *(..)) || execution(@com.xin.logRecord.annotation.LogRecords * *(..))")
+    public Object around(ProceedingJoinPoint point, JoinPoint.StaticPart staticPart) throws Throwable {
+        LogRecordAspectSupport support = logRecordAspectSupport;
+        if (support == null) {
+            return point.proceed();
+        }
+        LogRecordMethodDescriptor descriptor = descriptorCache.get(staticPart);
+        if (descriptor == null) {
+            descriptor = descriptorCache.computeIfAbsent(staticPart,
+                    k -> support.newDescriptor(((MethodSignature) k.getSignature()).getMethod()));
+        }
+        return support.invoke(point, descriptor);
+    }
+
+    static void bind(LogRecordAspectSupport support) {
+        logRecordAspectSupport = support;
+    }
+
+    static void unbind(LogRecordAspectSupport support) {
+        if (logRecordAspectSupport == support) {
+            logRecordAspectSupport = null;
+        }
+    }
+}
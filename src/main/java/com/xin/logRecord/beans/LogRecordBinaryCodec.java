@@ -0,0 +1,172 @@
+package com.xin.logRecord.beans;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * logRecordDTO的紧凑二进制编码
+ * 格式：版本号(1字节) + 标志位(1字节) + [operateDate(8字节)] + [executionTime(8字节)] + 依次排列的字符串字段
+ * 字符串字段为变长长度(0表示null，n+1表示n个字节) + UTF-8字节
+ */
+public final class LogRecordBinaryCodec {
+    private static final byte VERSION = 1;
+
+    private static final int FLAG_OPERATE_DATE = 1;
+
+    private static final int FLAG_EXECUTION_TIME = 1 << 1;
+
+    private static final int FLAG_SUCCESS_PRESENT = 1 << 2;
+
+    private static final int FLAG_SUCCESS = 1 << 3;
+
+    private static final int FLAG_MSG_FORMATTER = 1 << 4;
+
+    private static final ThreadLocal<ByteBuffer> encodeBuffer = ThreadLocal.withInitial(() -> ByteBuffer.allocate(1024));
+
+    private LogRecordBinaryCodec() {
+    }
+
+    /**
+     * 编码logRecordDTO，返回的缓冲区为当前线程复用的缓冲区(已flip)，需在下一次编码前使用完毕
+     * 编码不执行用户代码，调用方需先调用completeDeferred()完成延迟解析(LogRecordSinkInvoker已在写入前完成)
+     */
+    public static ByteBuffer encode(LogRecordDTO logRecordDTO) {
+        if (logRecordDTO.hasDeferredTask()) {
+            throw new IllegalStateException("LogRecordBinaryCodec encode error, deferred task not completed");
+        }
+        ByteBuffer buffer = encodeBuffer.get();
+        ((Buffer) buffer).clear();
+        LogRecordMsgFormatter msgFormatter = logRecordDTO.msgFormatter();
+        int flags = 0;
+        if (logRecordDTO.hasOperateTime()) {
+            flags |= FLAG_OPERATE_DATE;
+        }
+        if (logRecordDTO.hasExecutionTime()) {
+            flags |= FLAG_EXECUTION_TIME;
+        }
+        Boolean success = logRecordDTO.getSuccess();
+        if (success != null) {
+            flags |= FLAG_SUCCESS_PRESENT;
+            if (success) {
+                flags |= FLAG_SUCCESS;
+            }
+        }
+        if (msgFormatter != null) {
+            flags |= FLAG_MSG_FORMATTER;
+        }
+        buffer = ensureCapacity(buffer, 2 + 16);
+        buffer.put(VERSION);
+        buffer.put((byte) flags);
+        if (logRecordDTO.hasOperateTime()) {
+            buffer.putLong(logRecordDTO.getOperateTime());
+        }
+        if (logRecordDTO.hasExecutionTime()) {
+            buffer.putLong(logRecordDTO.executionTimeMillis());
+        }
+        buffer = putString(buffer, logRecordDTO.getLogId());
+        buffer = putString(buffer, logRecordDTO.getBizId());
+        buffer = putString(buffer, logRecordDTO.getBizType());
+        buffer = putString(buffer, logRecordDTO.getOperatorId());
+        buffer = putString(buffer, logRecordDTO.getTemplateMsg());
+        buffer = putString(buffer, logRecordDTO.getException());
+        buffer = putString(buffer, logRecordDTO.getExtra());
+        // 只编码显式设置或已渲染的msg，未渲染时只保存格式化器的prefix和suffix
+        buffer = putString(buffer, logRecordDTO.rawMsg());
+        if (msgFormatter != null) {
+            buffer = putString(buffer, msgFormatter.getPrefix());
+            buffer = putString(buffer, msgFormatter.getSuffix());
+        }
+        encodeBuffer.set(buffer);
+        ((Buffer) buffer).flip();
+        return buffer;
+    }
+
+    /**
+     * 从缓冲区当前位置解码一条记录
+     */
+    public static LogRecordDTO decode(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("LogRecordBinaryCodec unsupported version [" + version + "]");
+        }
+        int flags = buffer.get();
+        LogRecordDTO logRecordDTO = LogRecordDTO.builder().build();
+        if ((flags & FLAG_OPERATE_DATE) != 0) {
+            logRecordDTO.setOperateTime(buffer.getLong());
+        }
+        if ((flags & FLAG_EXECUTION_TIME) != 0) {
+            logRecordDTO.setExecutionTime(buffer.getLong());
+        }
+        if ((flags & FLAG_SUCCESS_PRESENT) != 0) {
+            logRecordDTO.setSuccess((flags & FLAG_SUCCESS) != 0);
+        }
+        logRecordDTO.setLogId(getString(buffer));
+        logRecordDTO.setBizId(getString(buffer));
+        logRecordDTO.setBizType(getString(buffer));
+        logRecordDTO.setOperatorId(getString(buffer));
+        logRecordDTO.setTemplateMsg(getString(buffer));
+        logRecordDTO.setException(getString(buffer));
+        logRecordDTO.setExtra(getString(buffer));
+        logRecordDTO.setMsg(getString(buffer));
+        if ((flags & FLAG_MSG_FORMATTER) != 0) {
+            String prefix = getString(buffer);
+            String suffix = getString(buffer);
+            logRecordDTO.setMsgFormatter(LogRecordMsgFormatter.of(prefix, suffix));
+        }
+        return logRecordDTO;
+    }
+
+    private static ByteBuffer putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer = ensureCapacity(buffer, 1);
+            buffer.put((byte) 0);
+            return buffer;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer = ensureCapacity(buffer, 5 + bytes.length);
+        putVarInt(buffer, bytes.length + 1);
+        buffer.put(bytes);
+        return buffer;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = getVarInt(buffer);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int required) {
+        if (buffer.remaining() >= required) {
+            return buffer;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + required));
+        ((Buffer) buffer).flip();
+        larger.put(buffer);
+        return larger;
+    }
+}
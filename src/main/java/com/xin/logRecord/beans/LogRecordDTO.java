@@ -1,18 +1,37 @@
 package com.xin.logRecord.beans;
 
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.Date;
 
-@Builder
+/**
+ * 操作时间、是否成功和执行时长以基本类型保存，原有的Date、Boolean、Long类型的getter和setter保持不变
+ */
 @Data
 public class LogRecordDTO {
+    // operateTime和executionTime未设置时的值
+    private static final long UNSET = -1;
+
+    private static final byte SUCCESS_UNSET = 0;
+
+    private static final byte SUCCESS_FALSE = 1;
+
+    private static final byte SUCCESS_TRUE = 2;
+
     // 日志id
     private String logId;
 
-    // 操作时间
-    private Date operateDate;
+    // 操作时间(epoch毫秒)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private long operateTime = UNSET;
 
     // 操作日志绑定的业务对象标识
     private String bizId;
@@ -24,7 +43,10 @@ public class LogRecordDTO {
     private String operatorId;
 
     // 是否成功
-    private Boolean success;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private byte success = SUCCESS_UNSET;
 
     // 模板信息
     private String templateMsg;
@@ -36,8 +58,126 @@ public class LogRecordDTO {
     private String extra;
 
     // 方法执行时长(毫秒)
-    private Long executionTime;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private long executionTime = UNSET;
 
-    // 日志全部信息
+    // 日志全部信息，未显式设置时在首次读取时才渲染，渲染前后值不同，不参与equals/hashCode/toString
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private String msg;
+
+    // msg的渲染器
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private LogRecordMsgFormatter msgFormatter;
+
+    // 延迟解析模式下尚未执行的模板解析与后置处理
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private LogRecordDeferredTask deferredTask;
+
+    /**
+     * builder只包含对外的字段，操作时间(epoch毫秒)通过setOperateTime设置，msg渲染器和延迟任务由框架内部通过setter设置
+     */
+    @Builder
+    private LogRecordDTO(String logId, Date operateDate, String bizId, String bizType, String operatorId, Boolean success,
+                         String templateMsg, String exception, String extra, Long executionTime, String msg) {
+        this.logId = logId;
+        setOperateDate(operateDate);
+        this.bizId = bizId;
+        this.bizType = bizType;
+        this.operatorId = operatorId;
+        setSuccess(success);
+        this.templateMsg = templateMsg;
+        this.exception = exception;
+        this.extra = extra;
+        setExecutionTime(executionTime);
+        this.msg = msg;
+    }
+
+    /**
+     * 操作时间(epoch毫秒)，未设置时为-1
+     */
+    public long getOperateTime() {
+        return operateTime;
+    }
+
+    public void setOperateTime(long operateTime) {
+        this.operateTime = operateTime;
+    }
+
+    @ToString.Include(name = "operateDate")
+    public Date getOperateDate() {
+        return operateTime == UNSET ? null : new Date(operateTime);
+    }
+
+    public void setOperateDate(Date operateDate) {
+        this.operateTime = operateDate == null ? UNSET : operateDate.getTime();
+    }
+
+    @ToString.Include(name = "success")
+    public Boolean getSuccess() {
+        return success == SUCCESS_UNSET ? null : success == SUCCESS_TRUE;
+    }
+
+    public void setSuccess(Boolean success) {
+        this.success = success == null ? SUCCESS_UNSET : (success ? SUCCESS_TRUE : SUCCESS_FALSE);
+    }
+
+    @ToString.Include(name = "executionTime")
+    public Long getExecutionTime() {
+        return executionTime == UNSET ? null : executionTime;
+    }
+
+    public void setExecutionTime(Long executionTime) {
+        this.executionTime = executionTime == null ? UNSET : executionTime;
+    }
+
+    public String getMsg() {
+        if (msg == null && msgFormatter != null) {
+            msg = msgFormatter.format(this);
+        }
+        return msg;
+    }
+
+    /**
+     * 执行尚未完成的模板解析与后置处理，由日志线程在写入日志记录服务前调用
+     */
+    public void completeDeferred() {
+        LogRecordDeferredTask task = this.deferredTask;
+        if (task != null) {
+            this.deferredTask = null;
+            task.complete(this);
+        }
+    }
+
+    public boolean hasDeferredTask() {
+        return deferredTask != null;
+    }
+
+    // 不触发渲染的msg，供编码使用
+    String rawMsg() {
+        return msg;
+    }
+
+    LogRecordMsgFormatter msgFormatter() {
+        return msgFormatter;
+    }
+
+    boolean hasOperateTime() {
+        return operateTime != UNSET;
+    }
+
+    boolean hasExecutionTime() {
+        return executionTime != UNSET;
+    }
+
+    long executionTimeMillis() {
+        return executionTime;
+    }
 }
@@ -0,0 +1,9 @@
+package com.xin.logRecord.beans;
+
+/**
+ * 延迟到日志线程执行的模板解析与后置处理
+ */
+@FunctionalInterface
+public interface LogRecordDeferredTask {
+    void complete(LogRecordDTO logRecordDTO);
+}
@@ -0,0 +1,56 @@
+package com.xin.logRecord.beans;
+
+import com.xin.logRecord.annotation.LogRecord;
+import com.xin.logRecord.parse.LogRecordExpressionCache;
+import lombok.Getter;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 每个(目标类, 方法)只构建一次的不可变描述，缓存方法上所有与日志记录相关的反射信息
+ */
+@Getter
+public final class LogRecordMethodDescriptor {
+    /**
+     * 通过Spring提供的ParameterNameDiscoverer接口可以通过asm获取了class文件的LocalVariableTable信息，
+     * LocalVariableTable里不仅保存了参数名，还保存了其他局部变量信息
+     */
+    private static final DefaultParameterNameDiscoverer discoverer = new DefaultParameterNameDiscoverer();
+
+    private static final String[] EMPTY_PARAMETER_NAMES = new String[0];
+
+    private final Method method;
+
+    private final String[] parameterNames;
+
+    // 类全名#方法名，用于匹配按方法配置的采样与限流规则
+    private final String methodKey;
+
+    // 方法执行前解析的注解
+    private final List<LogRecordOperation> beforeOperations;
+
+    // 方法执行后解析的注解
+    private final List<LogRecordOperation> afterOperations;
+
+    public LogRecordMethodDescriptor(Method method, LogRecordExpressionCache expressionCache) {
+        this.method = method;
+        String[] params = discoverer.getParameterNames(method);
+        this.parameterNames = params == null ? EMPTY_PARAMETER_NAMES : params;
+        this.methodKey = method.getDeclaringClass().getName() + "#" + method.getName();
+        List<LogRecordOperation> before = new ArrayList<>();
+        List<LogRecordOperation> after = new ArrayList<>();
+        for (LogRecord logRecord : method.getAnnotationsByType(LogRecord.class)) {
+            if (logRecord.executeBeforeFunc()) {
+                before.add(new LogRecordOperation(logRecord, expressionCache));
+            } else {
+                after.add(new LogRecordOperation(logRecord, expressionCache));
+            }
+        }
+        this.beforeOperations = Collections.unmodifiableList(before);
+        this.afterOperations = Collections.unmodifiableList(after);
+    }
+}
@@ -0,0 +1,57 @@
+package com.xin.logRecord.beans;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 将logRecordDTO渲染为msg的格式化器，字段顺序与LogRecordDTO中的声明顺序一致(不包括msg本身)
+ * 按prefix和suffix缓存实例，渲染时不使用反射
+ */
+public final class LogRecordMsgFormatter {
+    private static final Map<String, LogRecordMsgFormatter> formatterCache = new ConcurrentHashMap<>(8);
+
+    private final String prefix;
+
+    private final String suffix;
+
+    private LogRecordMsgFormatter(String prefix, String suffix) {
+        this.prefix = prefix;
+        this.suffix = suffix;
+    }
+
+    public static LogRecordMsgFormatter of(String prefix, String suffix) {
+        return formatterCache.computeIfAbsent(prefix + suffix, k -> new LogRecordMsgFormatter(prefix, suffix));
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    public String format(LogRecordDTO logRecordDTO) {
+        StringBuilder msg = new StringBuilder(256);
+        msg.append(prefix);
+        append(msg, "logId=", logRecordDTO.getLogId());
+        append(msg, ", operateDate=", logRecordDTO.getOperateDate());
+        append(msg, ", bizId=", logRecordDTO.getBizId());
+        append(msg, ", bizType=", logRecordDTO.getBizType());
+        append(msg, ", operatorId=", logRecordDTO.getOperatorId());
+        append(msg, ", success=", logRecordDTO.getSuccess());
+        append(msg, ", templateMsg=", logRecordDTO.getTemplateMsg());
+        append(msg, ", exception=", logRecordDTO.getException());
+        append(msg, ", extra=", logRecordDTO.getExtra());
+        append(msg, ", executionTime=", logRecordDTO.getExecutionTime());
+        msg.append(suffix);
+        return msg.toString();
+    }
+
+    private static void append(StringBuilder msg, String name, Object value) {
+        msg.append(name);
+        if (value != null) {
+            msg.append(value);
+        }
+    }
+}
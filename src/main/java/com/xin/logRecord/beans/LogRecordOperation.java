@@ -0,0 +1,118 @@
+package com.xin.logRecord.beans;
+
+import com.xin.logRecord.annotation.LogRecord;
+import com.xin.logRecord.constant.PrefixConstant;
+import com.xin.logRecord.parse.LogRecordExpressionCache;
+import lombok.Getter;
+import org.springframework.expression.Expression;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单个@LogRecord注解的预处理结果，prefix、suffix与各属性的SpEL表达式在构建时即解析完成
+ */
+@Getter
+public final class LogRecordOperation {
+    private final LogRecord logRecord;
+
+    private final String prefix;
+
+    private final String suffix;
+
+    private final LogRecordMsgFormatter msgFormatter;
+
+    // bizType为字符串字面量时的值，用于在SpEL解析前匹配采样与限流规则；为动态表达式时为null
+    private final String staticBizType;
+
+    // 是否在日志线程中解析模板
+    private final boolean deferred;
+
+    // 参数名或变量名 -> 延迟解析时需立即读取的属性路径，空字符串表示浅拷贝整个对象
+    private final Map<String, List<String>> snapshotFields;
+
+    // 以下表达式在对应属性为空时为null
+    private final Expression conditionExpression;
+
+    private final Expression bizIdExpression;
+
+    private final Expression bizTypeExpression;
+
+    private final Expression operatorIdExpression;
+
+    private final Expression extraExpression;
+
+    private final Expression successExpression;
+
+    private final Expression failExpression;
+
+    // 任一表达式解析失败时的异常，方法执行时由解析器抛出并记录日志，启动校验同样会报告
+    private final RuntimeException parseError;
+
+    public LogRecordOperation(LogRecord logRecord, LogRecordExpressionCache expressionCache) {
+        this.logRecord = logRecord;
+        String prefixAndSuffix = PrefixConstant.getPrefixAndSuffix(logRecord.prefix());
+        this.prefix = (prefixAndSuffix == null || prefixAndSuffix.length() == 0) ? "" : prefixAndSuffix.substring(0, 1);
+        this.suffix = (prefixAndSuffix == null || prefixAndSuffix.length() == 0) ? "" : prefixAndSuffix.substring(1, 2);
+        this.msgFormatter = LogRecordMsgFormatter.of(this.prefix, this.suffix);
+        this.staticBizType = toStaticBizType(logRecord.bizType());
+        this.deferred = logRecord.deferred();
+        this.snapshotFields = toSnapshotFields(logRecord.snapshotFields());
+        RuntimeException[] error = new RuntimeException[1];
+        this.conditionExpression = resolve(expressionCache, logRecord.condition(), error);
+        this.bizIdExpression = resolve(expressionCache, logRecord.bizId(), error);
+        this.bizTypeExpression = resolve(expressionCache, logRecord.bizType(), error);
+        this.operatorIdExpression = resolve(expressionCache, logRecord.operatorId(), error);
+        this.extraExpression = resolve(expressionCache, logRecord.extra(), error);
+        this.successExpression = resolve(expressionCache, logRecord.success(), error);
+        this.failExpression = resolve(expressionCache, logRecord.fail(), error);
+        this.parseError = error[0];
+    }
+
+    private static Expression resolve(LogRecordExpressionCache expressionCache, String expression, RuntimeException[] error) {
+        if (!StringUtils.hasText(expression)) {
+            return null;
+        }
+        try {
+            return expressionCache.getExpression(expression);
+        } catch (RuntimeException e) {
+            if (error[0] == null) {
+                error[0] = e;
+            }
+            return null;
+        }
+    }
+
+    private static Map<String, List<String>> toSnapshotFields(String[] fields) {
+        if (fields.length == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, List<String>> snapshotFields = new LinkedHashMap<>();
+        for (String field : fields) {
+            String path = field.trim();
+            if (path.startsWith("#")) {
+                path = path.substring(1);
+            }
+            int dot = path.indexOf('.');
+            String name = dot < 0 ? path : path.substring(0, dot);
+            snapshotFields.computeIfAbsent(name, k -> new ArrayList<>()).add(dot < 0 ? "" : path.substring(dot + 1));
+        }
+        return Collections.unmodifiableMap(snapshotFields);
+    }
+
+    private static String toStaticBizType(String bizType) {
+        String expression = bizType.trim();
+        if (expression.isEmpty()) {
+            return "";
+        }
+        if (expression.length() >= 2 && expression.charAt(0) == '\'' && expression.charAt(expression.length() - 1) == '\''
+                && expression.indexOf('\'', 1) == expression.length() - 1) {
+            return expression.substring(1, expression.length() - 1);
+        }
+        return null;
+    }
+}
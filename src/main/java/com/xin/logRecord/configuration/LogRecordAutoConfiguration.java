@@ -1,11 +1,167 @@
 package com.xin.logRecord.configuration;
 
+import com.xin.logRecord.dispatch.BatchingLogRecordDispatcher;
+import com.xin.logRecord.dispatch.ExecutorLogRecordDispatcher;
+import com.xin.logRecord.dispatch.LogRecordDispatcher;
+import com.xin.logRecord.dispatch.LogRecordFanOut;
+import com.xin.logRecord.dispatch.LogRecordSinkInvoker;
+import com.xin.logRecord.dispatch.RingBufferLogRecordDispatcher;
+import com.xin.logRecord.dispatch.SpoolingLogRecordDispatcher;
+import com.xin.logRecord.dispatch.StripedLogRecordDispatcher;
+import com.xin.logRecord.metrics.LogRecordMetrics;
+import com.xin.logRecord.service.LogRecordBatchService;
+import com.xin.logRecord.service.LogRecordCustomService;
+import com.xin.logRecord.service.impl.DefaultLogRecordService;
+import com.xin.logRecord.service.impl.FileLogRecordService;
+import com.xin.logRecord.service.impl.JdbcLogRecordService;
+import com.xin.logRecord.service.impl.LogRecordBatchServiceAdapter;
+import com.xin.logRecord.store.LogRecordRecentStore;
+import com.xin.logRecord.thread.LogRecordThreadPool;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Configuration
 @EnableConfigurationProperties(LogRecordProperties.class)
 @ComponentScan("com.xin.logRecord")
 public class LogRecordAutoConfiguration {
+
+    @Bean
+    public LogRecordDispatcher logRecordDispatcher(LogRecordProperties logRecordProperties,
+                                                   LogRecordThreadPool logRecordThreadPool,
+                                                   LogRecordMetrics logRecordMetrics,
+                                                   ObjectProvider<LogRecordBatchService> logRecordBatchService,
+                                                   ObjectProvider<LogRecordCustomService> logRecordCustomService,
+                                                   ObjectProvider<JdbcLogRecordService> jdbcLogRecordService,
+                                                   ObjectProvider<FileLogRecordService> fileLogRecordService,
+                                                   ObjectProvider<LogRecordRecentStore> logRecordRecentStore,
+                                                   ObjectProvider<LogRecordFanOut> logRecordFanOut,
+                                                   DefaultLogRecordService defaultLogRecordService) throws IOException {
+        LogRecordFanOut fanOut = logRecordFanOut.getIfAvailable();
+        LogRecordBatchService sink = fanOut != null ? fanOut::record
+                : resolveSink(logRecordBatchService, logRecordCustomService, jdbcLogRecordService, fileLogRecordService, defaultLogRecordService);
+        // 最近记录存储在日志记录服务之前保存记录，其本身不抛出异常
+        LogRecordRecentStore recentStore = logRecordRecentStore.getIfAvailable();
+        if (recentStore != null) {
+            LogRecordBatchService primary = sink;
+            sink = logRecordDTOs -> {
+                recentStore.record(logRecordDTOs);
+                primary.record(logRecordDTOs);
+            };
+        }
+        LogRecordSinkInvoker sinkInvoker = fanOut != null ? LogRecordSinkInvoker.forFanOut(sink, logRecordMetrics)
+                : new LogRecordSinkInvoker(sink, logRecordMetrics);
+        // 开启spool时由drainer线程直接写入日志记录服务
+        if (logRecordProperties.getSpool().isEnabled()) {
+            return new SpoolingLogRecordDispatcher(sinkInvoker, logRecordProperties.getSpool());
+        }
+        switch (logRecordProperties.getDispatcher()) {
+            case BATCH:
+                return new BatchingLogRecordDispatcher(logRecordThreadPool, sinkInvoker, logRecordProperties.getBatch());
+            case RING_BUFFER:
+                return new RingBufferLogRecordDispatcher(sinkInvoker, logRecordProperties.getRingBuffer());
+            case STRIPED:
+                return new StripedLogRecordDispatcher(logRecordThreadPool, sinkInvoker, logRecordProperties.getStriped());
+            case EXECUTOR:
+            default:
+                return new ExecutorLogRecordDispatcher(logRecordThreadPool, sinkInvoker);
+        }
+    }
+
+    /**
+     * 开启后以独立的日志文件代替DefaultLogRecordService
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "log-record.file-sink", name = "enabled", havingValue = "true")
+    public FileLogRecordService fileLogRecordService(LogRecordProperties logRecordProperties) throws IOException {
+        return new FileLogRecordService(logRecordProperties.getFileSink());
+    }
+
+    /**
+     * 开启后将记录批量写入容器中DataSource对应的数据库表
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "log-record.jdbc", name = "enabled", havingValue = "true")
+    public JdbcLogRecordService jdbcLogRecordService(LogRecordProperties logRecordProperties, ObjectProvider<DataSource> dataSource) {
+        DataSource available = dataSource.getIfAvailable();
+        if (available == null) {
+            throw new IllegalStateException("log-record.jdbc.enabled is true but no DataSource bean is defined");
+        }
+        return new JdbcLogRecordService(available, logRecordProperties.getJdbc());
+    }
+
+    /**
+     * 开启后在内存中保留最近的记录供查询
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "log-record.recent", name = "enabled", havingValue = "true")
+    public LogRecordRecentStore logRecordRecentStore(LogRecordProperties logRecordProperties) {
+        return new LogRecordRecentStore(logRecordProperties.getRecent());
+    }
+
+    /**
+     * 开启后将记录同时写入全部日志记录服务：用户提供的LogRecordBatchService与LogRecordCustomService，
+     * 以及开启的JDBC与文件日志记录服务，均不存在时使用DefaultLogRecordService
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "log-record.fan-out", name = "enabled", havingValue = "true")
+    public LogRecordFanOut logRecordFanOut(LogRecordProperties logRecordProperties,
+                                           LogRecordMetrics logRecordMetrics,
+                                           ListableBeanFactory beanFactory,
+                                           DefaultLogRecordService defaultLogRecordService) {
+        Map<String, LogRecordBatchService> sinks = new LinkedHashMap<>();
+        beanFactory.getBeansOfType(LogRecordBatchService.class).forEach((name, service) -> {
+            if (!(service instanceof LogRecordRecentStore)) {
+                sinks.put(name, service);
+            }
+        });
+        beanFactory.getBeansOfType(LogRecordCustomService.class).forEach((name, service) ->
+                sinks.put(name, new LogRecordBatchServiceAdapter(service)));
+        if (sinks.isEmpty()) {
+            sinks.put("defaultLogRecordService", new LogRecordBatchServiceAdapter(defaultLogRecordService));
+        }
+        return new LogRecordFanOut(sinks, logRecordProperties.getFanOut(), logRecordMetrics);
+    }
+
+    /**
+     * 未开启扇出时的日志记录服务优先级：LogRecordBatchService > LogRecordCustomService > JdbcLogRecordService > FileLogRecordService > DefaultLogRecordService
+     * 单条记录的服务会被自动适配为批量服务
+     */
+    private static LogRecordBatchService resolveSink(ObjectProvider<LogRecordBatchService> logRecordBatchService,
+                                                     ObjectProvider<LogRecordCustomService> logRecordCustomService,
+                                                     ObjectProvider<JdbcLogRecordService> jdbcLogRecordService,
+                                                     ObjectProvider<FileLogRecordService> fileLogRecordService,
+                                                     DefaultLogRecordService defaultLogRecordService) {
+        // 内置的JDBC、文件日志记录服务与最近记录存储本身也是LogRecordBatchService，此处只查找用户提供的实现
+        LogRecordBatchService batchService = logRecordBatchService.orderedStream()
+                .filter(service -> !(service instanceof FileLogRecordService) && !(service instanceof JdbcLogRecordService)
+                        && !(service instanceof LogRecordRecentStore))
+                .findFirst()
+                .orElse(null);
+        if (batchService != null) {
+            return batchService;
+        }
+        LogRecordCustomService customService = logRecordCustomService.getIfAvailable();
+        if (customService != null) {
+            return new LogRecordBatchServiceAdapter(customService);
+        }
+        JdbcLogRecordService jdbcService = jdbcLogRecordService.getIfAvailable();
+        if (jdbcService != null) {
+            return jdbcService;
+        }
+        FileLogRecordService fileService = fileLogRecordService.getIfAvailable();
+        if (fileService != null) {
+            return fileService;
+        }
+        return new LogRecordBatchServiceAdapter(defaultLogRecordService);
+    }
 }
@@ -1,10 +1,326 @@
 package com.xin.logRecord.configuration;
 
+import com.xin.logRecord.constant.DispatcherType;
+import com.xin.logRecord.constant.ExecutorType;
+import com.xin.logRecord.constant.FileFormat;
+import com.xin.logRecord.constant.FsyncPolicy;
+import com.xin.logRecord.constant.JdbcInsertMode;
+import com.xin.logRecord.constant.OverflowPolicy;
+import com.xin.logRecord.constant.SnapshotStrategy;
+import com.xin.logRecord.constant.ValidationMode;
+import com.xin.logRecord.constant.WaitStrategy;
+import com.xin.logRecord.constant.WeavingMode;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.expression.spel.SpelCompilerMode;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Data
 @ConfigurationProperties(prefix = "log-record")
 public class LogRecordProperties {
     private int poolSize = 4;
+
+    // 执行日志记录任务的线程模型：FIXED、VIRTUAL、FORK_JOIN、CUSTOM
+    private ExecutorType executor = ExecutorType.FIXED;
+
+    // VIRTUAL模式下同时写入日志记录服务的最大任务数
+    private int virtualMaxConcurrency = 256;
+
+    // VIRTUAL模式下等待写入的最大任务数，超过后由调用线程执行并计入拒绝次数
+    private int virtualQueueCapacity = 1024;
+
+    // SpEL编译模式：OFF(不编译)、IMMEDIATE(立即编译)、MIXED(解释与编译混合)
+    private SpelCompilerMode spelCompilerMode = SpelCompilerMode.OFF;
+
+    // 是否将只由字面量和#变量.属性路径拼接而成的表达式编译为轻量模板，绕过SpEL执行
+    private boolean simpleTemplateEnabled = true;
+
+    // @LogRecord的增强方式：PROXY(Spring AOP代理)、ASPECTJ(编译期或加载期织入)
+    private WeavingMode weaving = WeavingMode.PROXY;
+
+    // 日志分发方式：EXECUTOR(逐条提交线程池)、BATCH(攒批后提交线程池)、RING_BUFFER(预分配环形缓冲区)、STRIPED(按bizId分通道有序写入)
+    private DispatcherType dispatcher = DispatcherType.EXECUTOR;
+
+    private Batch batch = new Batch();
+
+    private RingBuffer ringBuffer = new RingBuffer();
+
+    private Striped striped = new Striped();
+
+    private Spool spool = new Spool();
+
+    private FileSink fileSink = new FileSink();
+
+    private Jdbc jdbc = new Jdbc();
+
+    private Recent recent = new Recent();
+
+    private FanOut fanOut = new FanOut();
+
+    private Metrics metrics = new Metrics();
+
+    private Limit limit = new Limit();
+
+    private Deferred deferred = new Deferred();
+
+    private Index index = new Index();
+
+    // 启动时预解析全部@LogRecord表达式的校验方式：NONE、REPORT、FAIL_FAST
+    private ValidationMode validation = ValidationMode.REPORT;
+
+    @Data
+    public static class Batch {
+        // 单批次最大记录数
+        private int maxSize = 100;
+
+        // 批次中第一条记录的最长等待时间(毫秒)
+        private long lingerMs = 200;
+
+        // 待攒批记录的队列容量，队列满时记录直接单条提交
+        private int queueCapacity = 10000;
+    }
+
+    @Data
+    public static class RingBuffer {
+        // 缓冲区容量，向上取整为2的幂
+        private int capacity = 4096;
+
+        // 缓冲区为空时消费线程的等待方式
+        private WaitStrategy waitStrategy = WaitStrategy.BLOCKING;
+
+        // 缓冲区已满时的处理策略
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+        // BLOCK策略下的最长等待时间(毫秒)
+        private long blockTimeoutMs = 10;
+
+        // 消费线程单次写入日志记录服务的最大记录数
+        private int batchSize = 100;
+    }
+
+    @Data
+    public static class Striped {
+        // 通道数，同一key的记录总是进入同一通道；同时写入的通道数不超过线程池大小
+        private int lanes = 16;
+
+        // 计算通道key的SpEL表达式，以logRecordDTO为根对象，如 bizType + ':' + bizId，为空时使用bizId
+        private String keyExpression;
+
+        // 单个通道的队列容量
+        private int laneCapacity = 1024;
+
+        // 通道已满时的处理策略，CALLER_RUNS按BLOCK处理
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+        // BLOCK策略下的最长等待时间(毫秒)
+        private long blockTimeoutMs = 10;
+
+        // 单次写入日志记录服务的最大记录数
+        private int batchSize = 100;
+
+        // 通道每次被调度时最多写入的批次数，用完后重新提交到线程池，避免热点通道长期占用线程
+        private int maxBatchesPerRun = 8;
+    }
+
+    @Data
+    public static class Spool {
+        // 是否先写入本地spool再由drainer线程写入日志记录服务
+        private boolean enabled = false;
+
+        // spool文件目录
+        private String dir = System.getProperty("java.io.tmpdir") + "/log-record-spool";
+
+        // 单个内存映射分段文件的大小(字节)
+        private int segmentSize = 64 * 1024 * 1024;
+
+        // drainer单次写入日志记录服务的最大记录数
+        private int batchSize = 100;
+
+        // 写入日志记录服务失败后的初始重试间隔(毫秒)，之后按2倍递增
+        private long retryBackoffMs = 1000;
+
+        // 最大重试间隔(毫秒)
+        private long maxRetryBackoffMs = 30000;
+
+        // 每次写入后是否强制刷盘，开启后可抵御操作系统崩溃但写入变慢
+        private boolean fsync = false;
+    }
+
+    @Data
+    public static class FileSink {
+        // 是否使用文件日志记录服务代替DefaultLogRecordService
+        private boolean enabled = false;
+
+        // 日志文件目录
+        private String dir = "logs/log-record";
+
+        // 日志文件名前缀
+        private String fileName = "log-record";
+
+        // 输出格式：JSON_LINES、BINARY
+        private FileFormat format = FileFormat.JSON_LINES;
+
+        // 刷盘策略：NEVER、BATCH、INTERVAL
+        private FsyncPolicy fsync = FsyncPolicy.NEVER;
+
+        // INTERVAL策略下的刷盘间隔(毫秒)
+        private long fsyncIntervalMs = 1000;
+
+        // 单个文件的最大大小(字节)，超过后滚动
+        private long maxFileSize = 128 * 1024 * 1024;
+
+        // 按时间滚动的间隔(毫秒)，0表示不按时间滚动
+        private long rollIntervalMs = 24 * 60 * 60 * 1000;
+
+        // 是否以gzip压缩滚动后的文件
+        private boolean compress = false;
+
+        // 写入缓冲区(直接内存)的大小(字节)
+        private int bufferSize = 256 * 1024;
+    }
+
+    @Data
+    public static class Jdbc {
+        // 是否使用JDBC日志记录服务将记录写入数据库表
+        private boolean enabled = false;
+
+        // 表名
+        private String tableName = "log_record";
+
+        // 启动时表不存在则创建
+        private boolean initializeSchema = true;
+
+        // 写入方式：BATCH(addBatch/executeBatch)、MULTI_ROW(多行INSERT)
+        private JdbcInsertMode insertMode = JdbcInsertMode.BATCH;
+
+        // 单次executeBatch或单条多行INSERT包含的最大记录数
+        private int batchSize = 100;
+
+        // 同时占用的最大连接数
+        private int maxConnections = 2;
+
+        // 等待连接许可的最长时间(毫秒)
+        private long acquireTimeoutMs = 5000;
+
+        // 连接中断、死锁等暂时性失败的最大重试次数
+        private int maxRetries = 3;
+
+        // 初始重试间隔(毫秒)，之后按2倍递增
+        private long retryBackoffMs = 100;
+
+        // 最大重试间隔(毫秒)
+        private long maxRetryBackoffMs = 2000;
+    }
+
+    @Data
+    public static class Recent {
+        // 是否在内存中保留最近的记录供查询，不影响原有的日志记录服务
+        private boolean enabled = false;
+
+        // 最多保留的记录数
+        private int maxRecords = 100000;
+
+        // 最长保留时间(毫秒)
+        private long maxAgeMs = 60 * 60 * 1000;
+
+        // 记录内容(编码后)占用的最大内存(字节)
+        private int maxBytes = 64 * 1024 * 1024;
+
+        // 记录内容是否保存在堆外内存
+        private boolean offHeap = false;
+
+        // 查询未指定数量时返回的最大记录数
+        private int defaultLimit = 100;
+    }
+
+    @Data
+    public static class Sink {
+        // 该日志记录服务独立队列的容量
+        private int queueCapacity = 1024;
+
+        // 写入该日志记录服务的线程数
+        private int workers = 1;
+
+        // 单次写入的最大记录数
+        private int batchSize = 100;
+
+        // 队列已满时的处理策略
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+
+        // BLOCK策略下的最长等待时间(毫秒)
+        private long blockTimeoutMs = 10;
+
+        // 连续失败多少次后熔断
+        private int failureThreshold = 5;
+
+        // 熔断持续时间(毫秒)，之后放行一次试探写入
+        private long openMs = 30000;
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class FanOut extends Sink {
+        // 是否将记录同时写入全部日志记录服务，各服务使用独立的队列与线程
+        private boolean enabled = false;
+
+        // 按bean名称单独配置，未配置的服务使用上面的默认配置
+        private Map<String, Sink> sinks = new ConcurrentHashMap<>();
+    }
+
+    @Data
+    public static class Metrics {
+        // 是否统计各阶段耗时与吞吐
+        private boolean enabled = true;
+
+        // 是否注册JMX MBean
+        private boolean jmxEnabled = true;
+    }
+
+    @Data
+    public static class Deferred {
+        // 是否对所有注解在日志线程中解析模板并执行后置处理，未开启时可通过@LogRecord(deferred = true)单独开启
+        private volatile boolean enabled = false;
+
+        // 参数、返回值与上下文变量的快照方式
+        private SnapshotStrategy snapshotStrategy = SnapshotStrategy.REFERENCE;
+    }
+
+    @Data
+    public static class Index {
+        // 开启后存在编译期生成的META-INF/log-record.index时，据此注册自定义函数和校验表达式，不再扫描bean；
+        // 索引只包含经过注解处理器编译的模块，需确认所有模块都启用了注解处理器后再开启
+        private boolean enabled = false;
+    }
+
+    /**
+     * 采样、限流与开关规则，在SpEL解析前判断，运行时修改(配置中心刷新或直接调用setter)立即生效
+     */
+    @Data
+    public static class Rule {
+        // 是否记录日志
+        private volatile boolean enabled = true;
+
+        // 采样比例，取值0~1
+        private volatile double sampleRatio = 1.0;
+
+        // 每秒允许记录的条数，0表示不限流
+        private volatile double ratePerSecond = 0;
+
+        // 令牌桶容量，0表示与ratePerSecond相同
+        private volatile int burst = 0;
+    }
+
+    /**
+     * 全局规则，并可按bizType(注解中为字符串字面量时)和方法(类全名#方法名)单独配置
+     */
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Limit extends Rule {
+        private Map<String, Rule> bizTypes = new ConcurrentHashMap<>();
+
+        private Map<String, Rule> methods = new ConcurrentHashMap<>();
+    }
 }
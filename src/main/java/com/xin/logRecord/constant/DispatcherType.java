@@ -0,0 +1,12 @@
+package com.xin.logRecord.constant;
+
+public enum DispatcherType {
+    // 每条记录提交一个线程池任务
+    EXECUTOR,
+    // 按批次大小与等待时间攒批后提交
+    BATCH,
+    // 预分配环形缓冲区，由单独的消费线程批量写入
+    RING_BUFFER,
+    // 按bizId哈希到多个通道，每个通道在线程池中串行写入，保证同一业务对象的记录顺序
+    STRIPED
+}
@@ -0,0 +1,12 @@
+package com.xin.logRecord.constant;
+
+public enum ExecutorType {
+    // 固定大小的平台线程池
+    FIXED,
+    // 每个任务一个虚拟线程(JDK 21+)，并发写入数由信号量限制，低版本JDK回退为FIXED
+    VIRTUAL,
+    // 异步模式的ForkJoinPool
+    FORK_JOIN,
+    // 使用Spring容器中名为logRecordExecutor的Executor
+    CUSTOM
+}
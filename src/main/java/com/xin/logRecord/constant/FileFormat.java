@@ -0,0 +1,11 @@
+package com.xin.logRecord.constant;
+
+/**
+ * 文件日志记录服务的输出格式
+ */
+public enum FileFormat {
+    // 每行一条JSON
+    JSON_LINES,
+    // LogRecordBinaryCodec的紧凑二进制格式，记录首尾相接
+    BINARY
+}
@@ -0,0 +1,13 @@
+package com.xin.logRecord.constant;
+
+/**
+ * 文件日志记录服务的刷盘策略
+ */
+public enum FsyncPolicy {
+    // 不主动刷盘，由操作系统决定
+    NEVER,
+    // 每批写入后刷盘，并发写入的批次合并为一次刷盘(group commit)
+    BATCH,
+    // 按固定间隔刷盘
+    INTERVAL
+}
@@ -0,0 +1,11 @@
+package com.xin.logRecord.constant;
+
+/**
+ * JDBC日志记录服务的写入方式
+ */
+public enum JdbcInsertMode {
+    // 单行INSERT通过addBatch/executeBatch批量执行
+    BATCH,
+    // 一条INSERT语句包含多行VALUES
+    MULTI_ROW
+}
@@ -0,0 +1,15 @@
+package com.xin.logRecord.constant;
+
+/**
+ * 环形缓冲区已满时的处理策略
+ */
+public enum OverflowPolicy {
+    // 丢弃当前记录
+    DROP_NEWEST,
+    // 丢弃缓冲区中最早的记录后写入当前记录
+    DROP_OLDEST,
+    // 阻塞等待空位，超时后丢弃当前记录
+    BLOCK,
+    // 由调用线程直接写入日志记录服务
+    CALLER_RUNS
+}
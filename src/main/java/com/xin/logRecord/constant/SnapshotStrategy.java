@@ -0,0 +1,11 @@
+package com.xin.logRecord.constant;
+
+/**
+ * 延迟解析模式下方法参数、返回值与上下文变量的快照方式
+ */
+public enum SnapshotStrategy {
+    // 只保存引用，方法返回后对象被修改会影响日志内容
+    REFERENCE,
+    // 浅拷贝：集合、Map、数组与Date复制容器，普通对象通过无参构造器复制字段，无法复制时保留引用
+    SHALLOW_COPY
+}
@@ -0,0 +1,13 @@
+package com.xin.logRecord.constant;
+
+/**
+ * 启动时对@LogRecord表达式的校验方式
+ */
+public enum ValidationMode {
+    // 不校验，表达式在首次调用时才解析
+    NONE,
+    // 预解析全部表达式，逐条输出错误日志
+    REPORT,
+    // 预解析全部表达式，存在错误时启动失败
+    FAIL_FAST
+}
@@ -0,0 +1,15 @@
+package com.xin.logRecord.constant;
+
+/**
+ * 环形缓冲区为空时消费线程的等待方式
+ */
+public enum WaitStrategy {
+    // 挂起线程，由生产者唤醒，CPU占用最低
+    BLOCKING,
+    // 先自旋、再让出CPU，最后短暂休眠
+    SLEEPING,
+    // 自旋后让出CPU
+    YIELDING,
+    // 持续自旋，延迟最低但独占一个CPU核心
+    BUSY_SPIN
+}
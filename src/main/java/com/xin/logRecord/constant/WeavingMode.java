@@ -0,0 +1,8 @@
+package com.xin.logRecord.constant;
+
+public enum WeavingMode {
+    // Spring AOP代理，同一个bean内部的自调用不会被记录
+    PROXY,
+    // 由AspectJ编译期或加载期织入LogRecordWovenAspect，不创建代理
+    ASPECTJ
+}
@@ -1,25 +1,232 @@
 package com.xin.logRecord.context;
 
-import org.springframework.expression.spel.support.StandardEvaluationContext;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
 
-// 记录操作日志上下文信息
+/**
+ * 记录操作日志上下文信息
+ * 每次进入@LogRecord方法压入一个帧，退出时弹出，嵌套调用不会清除外层方法的变量；
+ * 弹出的上下文对象回收到当前线程的对象池中复用
+ */
 public class LogRecordContext {
-    private static final ThreadLocal<StandardEvaluationContext> logRecordContext = new ThreadLocal<>();
+    // 方法返回值对应的变量名，方法执行后可在表达式中以#_ret引用
+    public static final String RETURN_VALUE_VARIABLE = "_ret";
 
-    public static StandardEvaluationContext getContext() {
-        StandardEvaluationContext context = null;
-        if ((context = logRecordContext.get()) == null) {
-            logRecordContext.set(context = new StandardEvaluationContext());
+    // 每个线程最多缓存的上下文对象数
+    private static final int MAX_POOLED_CONTEXTS = 16;
+
+    private static final ThreadLocal<Frames> logRecordContext = ThreadLocal.withInitial(Frames::new);
+
+    /**
+     * 当前帧的上下文，不在@LogRecord方法中时创建一个隐式帧，
+     * 用于在调用@LogRecord方法前放入变量，随最外层@LogRecord方法退出一并清除
+     */
+    public static LogRecordEvaluationContext getContext() {
+        Frames frames = logRecordContext.get();
+        if (frames.size == 0) {
+            frames.push(frames.obtain(), false, false);
         }
-        return context;
+        return frames.top();
     }
 
     public static void putVariable(String name, Object value) {
-        StandardEvaluationContext context = LogRecordContext.getContext();
+        LogRecordEvaluationContext context = LogRecordContext.getContext();
         context.setVariable(name, value);
     }
 
+    /**
+     * 进入@LogRecord方法时压入新帧，新帧可读取外层帧的变量，放入的变量只在本帧可见
+     */
+    public static LogRecordEvaluationContext pushFrame() {
+        Frames frames = logRecordContext.get();
+        LogRecordEvaluationContext context = frames.obtain();
+        context.setParent(frames.size == 0 ? null : frames.top());
+        frames.push(context, true, false);
+        return context;
+    }
+
+    /**
+     * 退出@LogRecord方法时弹出当前帧，最外层帧弹出后清除全部上下文
+     */
+    public static void popFrame() {
+        Frames frames = logRecordContext.get();
+        frames.pop();
+        if (frames.scopes == 0) {
+            frames.clear();
+        }
+    }
+
     public static void clearContext() {
-        logRecordContext.remove();
+        logRecordContext.get().clear();
+    }
+
+    /**
+     * 捕获当前帧，在其他线程中通过restore()恢复，变量的读写均作用于被捕获的帧
+     */
+    public static Snapshot capture() {
+        Frames frames = logRecordContext.get();
+        if (frames.size == 0) {
+            return new Snapshot(null);
+        }
+        LogRecordEvaluationContext context = frames.top();
+        // 被捕获的帧及其外层帧可能在其他线程中继续使用，不再回收
+        for (LogRecordEvaluationContext current = context; current != null; current = current.getParent()) {
+            current.markCaptured();
+        }
+        return new Snapshot(context);
+    }
+
+    public static Runnable wrap(Runnable runnable) {
+        return capture().wrap(runnable);
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> callable) {
+        return capture().wrap(callable);
+    }
+
+    public static <T> Supplier<T> wrap(Supplier<T> supplier) {
+        return capture().wrap(supplier);
+    }
+
+    /**
+     * 被捕获的上下文
+     */
+    public static final class Snapshot {
+        private final LogRecordEvaluationContext context;
+
+        private Snapshot(LogRecordEvaluationContext context) {
+            this.context = context;
+        }
+
+        /**
+         * 在当前线程压入被捕获的帧，需在finally或try-with-resources中关闭
+         */
+        public Scope restore() {
+            if (context == null) {
+                return new Scope(false);
+            }
+            logRecordContext.get().push(context, true, true);
+            return new Scope(true);
+        }
+
+        public Runnable wrap(Runnable runnable) {
+            return () -> {
+                try (Scope ignored = restore()) {
+                    runnable.run();
+                }
+            };
+        }
+
+        public <T> Callable<T> wrap(Callable<T> callable) {
+            return () -> {
+                try (Scope ignored = restore()) {
+                    return callable.call();
+                }
+            };
+        }
+
+        public <T> Supplier<T> wrap(Supplier<T> supplier) {
+            return () -> {
+                try (Scope ignored = restore()) {
+                    return supplier.get();
+                }
+            };
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private boolean open;
+
+        private Scope(boolean open) {
+            this.open = open;
+        }
+
+        @Override
+        public void close() {
+            if (open) {
+                open = false;
+                popFrame();
+            }
+        }
+    }
+
+    /**
+     * 单个线程的帧栈与上下文对象池
+     */
+    private static final class Frames {
+        private LogRecordEvaluationContext[] stack = new LogRecordEvaluationContext[8];
+
+        // 由其他线程捕获后恢复的帧，弹出时不回收
+        private boolean[] borrowed = new boolean[8];
+
+        private int size;
+
+        // 由@LogRecord方法或restore()压入的帧数
+        private int scopes;
+
+        private final LogRecordEvaluationContext[] pool = new LogRecordEvaluationContext[MAX_POOLED_CONTEXTS];
+
+        private int pooled;
+
+        private LogRecordEvaluationContext top() {
+            return stack[size - 1];
+        }
+
+        private LogRecordEvaluationContext obtain() {
+            if (pooled > 0) {
+                LogRecordEvaluationContext context = pool[--pooled];
+                pool[pooled] = null;
+                return context;
+            }
+            return new LogRecordEvaluationContext();
+        }
+
+        private void push(LogRecordEvaluationContext context, boolean scoped, boolean isBorrowed) {
+            if (size == stack.length) {
+                stack = Arrays.copyOf(stack, size * 2);
+                borrowed = Arrays.copyOf(borrowed, size * 2);
+            }
+            stack[size] = context;
+            borrowed[size] = isBorrowed;
+            size++;
+            if (scoped) {
+                scopes++;
+            }
+        }
+
+        private void pop() {
+            if (size == 0) {
+                return;
+            }
+            size--;
+            LogRecordEvaluationContext context = stack[size];
+            stack[size] = null;
+            if (!borrowed[size]) {
+                recycle(context);
+            }
+            if (scopes > 0) {
+                scopes--;
+            }
+        }
+
+        private void clear() {
+            while (size > 0) {
+                size--;
+                if (!borrowed[size]) {
+                    recycle(stack[size]);
+                }
+                stack[size] = null;
+            }
+            scopes = 0;
+        }
+
+        private void recycle(LogRecordEvaluationContext context) {
+            if (context.isCaptured() || pooled == pool.length) {
+                return;
+            }
+            context.reset();
+            pool[pooled++] = context;
+        }
     }
 }
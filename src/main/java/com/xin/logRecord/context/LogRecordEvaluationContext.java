@@ -0,0 +1,156 @@
+package com.xin.logRecord.context;
+
+import com.xin.logRecord.constant.SnapshotStrategy;
+import com.xin.logRecord.function.LogRecordFunctionRegister;
+import org.springframework.context.expression.MapAccessor;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 操作日志的SpEL解析上下文
+ * 方法参数不会预先写入变量表，而是在表达式引用时按参数名懒加载(类似Spring的MethodBasedEvaluationContext)；
+ * 自定义函数统一从LogRecordFunctionRegister的共享只读函数表中查找，不再逐次注册到每个上下文
+ */
+public class LogRecordEvaluationContext extends StandardEvaluationContext {
+    private static final String[] EMPTY_PARAMETER_NAMES = new String[0];
+
+    private static final Object[] EMPTY_ARGS = new Object[0];
+
+    private String[] parameterNames = EMPTY_PARAMETER_NAMES;
+
+    private Object[] args = EMPTY_ARGS;
+
+    // 手动放入的变量，被捕获后可能在其他线程中读写
+    private final Map<String, Object> variables = new ConcurrentHashMap<>();
+
+    // 外层@LogRecord方法的上下文，其变量对本帧可见
+    private LogRecordEvaluationContext parent;
+
+    // 已被LogRecordContext.capture()捕获，不再回收复用
+    private volatile boolean captured;
+
+    /**
+     * 绑定方法参数，仅保存引用，不做任何拷贝
+     */
+    public void setArguments(String[] parameterNames, Object[] args) {
+        this.parameterNames = parameterNames == null ? EMPTY_PARAMETER_NAMES : parameterNames;
+        this.args = args == null ? EMPTY_ARGS : args;
+    }
+
+    @Override
+    public void setVariable(String name, Object value) {
+        if (name == null) {
+            return;
+        }
+        if (value != null) {
+            this.variables.put(name, value);
+        } else {
+            this.variables.remove(name);
+        }
+    }
+
+    /**
+     * 查找顺序：方法参数 > 手动放入的变量 > 外层帧的变量 > 自定义函数
+     * 与原先解析前将参数写入变量表的行为一致，同名时方法参数覆盖LogRecordContext.putVariable放入的变量
+     */
+    @Override
+    public Object lookupVariable(String name) {
+        int length = Math.min(this.parameterNames.length, this.args.length);
+        for (int i = 0; i < length; i++) {
+            if (this.parameterNames[i].equals(name)) {
+                return this.args[i];
+            }
+        }
+        Object variable = this.variables.get(name);
+        if (variable != null) {
+            return variable;
+        }
+        variable = super.lookupVariable(name);
+        if (variable != null) {
+            return variable;
+        }
+        for (LogRecordEvaluationContext current = this.parent; current != null; current = current.parent) {
+            variable = current.variables.get(name);
+            if (variable != null) {
+                return variable;
+            }
+        }
+        return LogRecordFunctionRegister.getFunction(name);
+    }
+
+    LogRecordEvaluationContext getParent() {
+        return parent;
+    }
+
+    void setParent(LogRecordEvaluationContext parent) {
+        this.parent = parent;
+    }
+
+    boolean isCaptured() {
+        return captured;
+    }
+
+    void markCaptured() {
+        this.captured = true;
+    }
+
+    /**
+     * 回收到对象池前清除本次调用的状态
+     */
+    void reset() {
+        this.variables.clear();
+        this.parameterNames = EMPTY_PARAMETER_NAMES;
+        this.args = EMPTY_ARGS;
+        this.parent = null;
+    }
+
+    /**
+     * 复制当前的参数与变量，供日志线程延迟解析模板使用
+     *
+     * @param snapshotFields 需要立即读取的字段，key为参数名或变量名，value为属性路径
+     */
+    public LogRecordEvaluationContext snapshot(SnapshotStrategy strategy, Map<String, List<String>> snapshotFields) {
+        LogRecordEvaluationContext snapshot = new LogRecordEvaluationContext();
+        // 立即读取的字段保存为Map，需支持#user.name形式的访问
+        snapshot.addPropertyAccessor(new MapAccessor());
+        Object[] copiedArgs = new Object[this.args.length];
+        for (int i = 0; i < copiedArgs.length; i++) {
+            copiedArgs[i] = LogRecordSnapshots.copy(this.args[i], strategy);
+        }
+        // 外层帧的变量一并展开，内层同名变量覆盖外层
+        Deque<LogRecordEvaluationContext> frames = new ArrayDeque<>();
+        for (LogRecordEvaluationContext current = this; current != null; current = current.parent) {
+            frames.push(current);
+        }
+        for (LogRecordEvaluationContext frame : frames) {
+            frame.variables.forEach((name, value) -> snapshot.variables.put(name, LogRecordSnapshots.copy(value, strategy)));
+        }
+        snapshotFields.forEach((name, paths) -> {
+            int index = indexOfParameter(name);
+            if (index >= 0 && index < this.args.length) {
+                copiedArgs[index] = LogRecordSnapshots.readFields(this.args[index], paths);
+            } else {
+                Object variable = lookupVariable(name);
+                if (variable != null) {
+                    snapshot.variables.put(name, LogRecordSnapshots.readFields(variable, paths));
+                }
+            }
+        });
+        snapshot.setArguments(this.parameterNames, copiedArgs);
+        return snapshot;
+    }
+
+    private int indexOfParameter(String name) {
+        for (int i = 0; i < this.parameterNames.length; i++) {
+            if (this.parameterNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,118 @@
+package com.xin.logRecord.context;
+
+import com.xin.logRecord.constant.SnapshotStrategy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 延迟解析模式下在调用线程上复制参数、返回值与上下文变量
+ */
+@Slf4j
+public class LogRecordSnapshots {
+    // 无法通过无参构造器复制的类型，只保留引用
+    private static final Set<Class<?>> uncopyableTypes = ConcurrentHashMap.newKeySet();
+
+    public static Object copy(Object value, SnapshotStrategy strategy) {
+        if (strategy == SnapshotStrategy.SHALLOW_COPY) {
+            return shallowCopy(value);
+        }
+        return value;
+    }
+
+    /**
+     * 浅拷贝：不可变类型直接返回，容器复制一层，普通对象复制字段
+     */
+    public static Object shallowCopy(Object value) {
+        if (value == null || isImmutable(value.getClass())) {
+            return value;
+        }
+        if (value instanceof Date) {
+            return ((Date) value).clone();
+        }
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+            System.arraycopy(value, 0, copy, 0, length);
+            return copy;
+        }
+        if (value instanceof Set) {
+            return new LinkedHashSet<>((Set<?>) value);
+        }
+        if (value instanceof Collection) {
+            return new ArrayList<>((Collection<?>) value);
+        }
+        if (value instanceof Map) {
+            return new LinkedHashMap<>((Map<?, ?>) value);
+        }
+        Class<?> type = value.getClass();
+        if (uncopyableTypes.contains(type)) {
+            return value;
+        }
+        try {
+            Object copy = BeanUtils.instantiateClass(type);
+            ReflectionUtils.shallowCopyFieldState(value, copy);
+            return copy;
+        } catch (RuntimeException e) {
+            uncopyableTypes.add(type);
+            log.warn("LogRecordSnapshots shallowCopy [{}] error, keep reference", type.getName());
+            return value;
+        }
+    }
+
+    /**
+     * 按属性路径立即读取字段，结果为嵌套Map，可在模板中继续以#user.address.city的形式引用
+     */
+    public static Object readFields(Object value, List<String> paths) {
+        if (value == null) {
+            return null;
+        }
+        if (paths.contains("")) {
+            // 只写参数名时浅拷贝整个参数
+            return shallowCopy(value);
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        BeanWrapper beanWrapper = value instanceof Map ? null : PropertyAccessorFactory.forBeanPropertyAccess(value);
+        for (String path : paths) {
+            Object fieldValue;
+            try {
+                fieldValue = beanWrapper == null ? ((Map<?, ?>) value).get(path) : beanWrapper.getPropertyValue(path);
+            } catch (RuntimeException e) {
+                log.warn("LogRecordSnapshots readFields [{}] error", path, e);
+                continue;
+            }
+            putPath(snapshot, path, fieldValue);
+        }
+        return snapshot;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void putPath(Map<String, Object> snapshot, String path, Object value) {
+        Map<String, Object> current = snapshot;
+        int start = 0;
+        int dot;
+        while ((dot = path.indexOf('.', start)) > 0) {
+            String name = path.substring(start, dot);
+            Object child = current.get(name);
+            if (!(child instanceof Map)) {
+                child = new LinkedHashMap<String, Object>();
+                current.put(name, child);
+            }
+            current = (Map<String, Object>) child;
+            start = dot + 1;
+        }
+        current.put(path.substring(start), value);
+    }
+
+    private static boolean isImmutable(Class<?> type) {
+        return ClassUtils.isPrimitiveOrWrapper(type) || type == String.class || type.isEnum() || type == Class.class
+                || type == UUID.class || type.getName().startsWith("java.time.") || type.getName().startsWith("java.math.");
+    }
+}
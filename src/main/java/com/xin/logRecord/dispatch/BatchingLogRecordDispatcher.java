@@ -0,0 +1,139 @@
+package com.xin.logRecord.dispatch;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+import com.xin.logRecord.configuration.LogRecordProperties;
+import com.xin.logRecord.metrics.LogRecordMetrics;
+import com.xin.logRecord.metrics.LogRecordStage;
+import com.xin.logRecord.thread.LogRecordThreadPool;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按批次分发：攒够maxSize条，或第一条记录等待超过lingerMs后，将整批记录交给线程池写入
+ */
+@Slf4j
+public class BatchingLogRecordDispatcher implements LogRecordDispatcher {
+    private final LogRecordThreadPool logRecordThreadPool;
+
+    private final LogRecordSinkInvoker sinkInvoker;
+
+    private final LogRecordMetrics logRecordMetrics;
+
+    private final BlockingQueue<PendingRecord> queue;
+
+    private final int maxSize;
+
+    private final long lingerNanos;
+
+    private final Thread flusher;
+
+    private volatile boolean running = true;
+
+    public BatchingLogRecordDispatcher(LogRecordThreadPool logRecordThreadPool, LogRecordSinkInvoker sinkInvoker,
+                                       LogRecordProperties.Batch batch) {
+        this.logRecordThreadPool = logRecordThreadPool;
+        this.sinkInvoker = sinkInvoker;
+        this.logRecordMetrics = sinkInvoker.getLogRecordMetrics();
+        this.queue = new LinkedBlockingQueue<>(batch.getQueueCapacity());
+        this.maxSize = Math.max(1, batch.getMaxSize());
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, batch.getLingerMs()));
+        this.flusher = new Thread(this::flushLoop, "log-record-batch-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+        log.info("BatchingLogRecordDispatcher init maxSize [{}] lingerMs [{}] queueCapacity [{}]",
+                maxSize, batch.getLingerMs(), batch.getQueueCapacity());
+    }
+
+    @Override
+    public void dispatch(LogRecordDTO logRecordDTO) {
+        // 队列已满时不丢弃，直接作为单条批次提交
+        if (!running || !queue.offer(new PendingRecord(logRecordDTO, logRecordMetrics.startTime()))) {
+            logRecordMetrics.recordRejected();
+            submit(Collections.singletonList(logRecordDTO));
+        }
+    }
+
+    @Override
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.NANOSECONDS.toMillis(lingerNanos) + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingRecord> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            sinkInvoker.record(toBatch(remaining));
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingRecord> pending = new ArrayList<>(maxSize);
+        while (running) {
+            try {
+                PendingRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                pending.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (pending.size() < maxSize) {
+                    queue.drainTo(pending, maxSize - pending.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (pending.size() >= maxSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingRecord next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    pending.add(next);
+                }
+            } catch (InterruptedException e) {
+                // 关闭时被中断，已取出的记录继续提交
+            }
+            if (!pending.isEmpty()) {
+                submit(toBatch(pending));
+                pending.clear();
+            }
+        }
+    }
+
+    private List<LogRecordDTO> toBatch(List<PendingRecord> pending) {
+        List<LogRecordDTO> batch = new ArrayList<>(pending.size());
+        long now = logRecordMetrics.isEnabled() ? System.nanoTime() : 0;
+        for (PendingRecord record : pending) {
+            logRecordMetrics.recordStageNanos(LogRecordStage.QUEUE_WAIT, now - record.enqueueTime);
+            batch.add(record.logRecordDTO);
+        }
+        return batch;
+    }
+
+    private void submit(List<LogRecordDTO> batch) {
+        logRecordThreadPool.execute(() -> sinkInvoker.record(batch));
+    }
+
+    private static final class PendingRecord {
+        private final LogRecordDTO logRecordDTO;
+
+        private final long enqueueTime;
+
+        private PendingRecord(LogRecordDTO logRecordDTO, long enqueueTime) {
+            this.logRecordDTO = logRecordDTO;
+            this.enqueueTime = enqueueTime;
+        }
+    }
+}
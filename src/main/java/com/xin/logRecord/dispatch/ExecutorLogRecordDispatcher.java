@@ -0,0 +1,35 @@
+package com.xin.logRecord.dispatch;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+import com.xin.logRecord.metrics.LogRecordStage;
+import com.xin.logRecord.thread.LogRecordThreadPool;
+
+import java.util.Collections;
+
+/**
+ * 每条记录提交一个线程池任务
+ */
+public class ExecutorLogRecordDispatcher implements LogRecordDispatcher {
+    private final LogRecordThreadPool logRecordThreadPool;
+
+    private final LogRecordSinkInvoker sinkInvoker;
+
+    public ExecutorLogRecordDispatcher(LogRecordThreadPool logRecordThreadPool, LogRecordSinkInvoker sinkInvoker) {
+        this.logRecordThreadPool = logRecordThreadPool;
+        this.sinkInvoker = sinkInvoker;
+    }
+
+    @Override
+    public void dispatch(LogRecordDTO logRecordDTO) {
+        long enqueueTime = sinkInvoker.getLogRecordMetrics().startTime();
+        logRecordThreadPool.execute(() -> {
+            sinkInvoker.getLogRecordMetrics().recordStage(LogRecordStage.QUEUE_WAIT, enqueueTime);
+            sinkInvoker.record(Collections.singletonList(logRecordDTO));
+        });
+    }
+
+    @Override
+    public int getQueueSize() {
+        return logRecordThreadPool.getQueueSize();
+    }
+}
@@ -0,0 +1,77 @@
+package com.xin.logRecord.dispatch;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个日志记录服务的熔断器：连续失败达到阈值后熔断，熔断期间的记录直接丢弃；
+ * 熔断时间结束后只放行一次试探写入，成功则恢复，失败则重新熔断
+ */
+public class LogRecordCircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+
+    private final long openMs;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private volatile State state = State.CLOSED;
+
+    private volatile long openUntil;
+
+    public LogRecordCircuitBreaker(int failureThreshold, long openMs) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMs = openMs;
+    }
+
+    /**
+     * 熔断中且未到试探时间，供入队前快速判断
+     */
+    public boolean isOpen() {
+        return state == State.OPEN && System.currentTimeMillis() < openUntil;
+    }
+
+    /**
+     * 写入前调用，返回false时本次不应写入
+     */
+    public boolean allowRequest() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.currentTimeMillis() >= openUntil) {
+            synchronized (this) {
+                if (state == State.OPEN) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state != State.CLOSED) {
+            state = State.CLOSED;
+        }
+    }
+
+    public void onFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            synchronized (this) {
+                openUntil = System.currentTimeMillis() + openMs;
+                state = State.OPEN;
+            }
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+}
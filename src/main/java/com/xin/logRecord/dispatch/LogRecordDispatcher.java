@@ -0,0 +1,44 @@
+package com.xin.logRecord.dispatch;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 将装配完成的logRecordDTO分发给日志记录服务
+ */
+public interface LogRecordDispatcher {
+    void dispatch(LogRecordDTO logRecordDTO);
+
+    /**
+     * 当前等待写入日志记录服务的记录数
+     */
+    default int getQueueSize() {
+        return 0;
+    }
+
+    /**
+     * 按key分通道的分发器的通道数，其余分发器为0
+     */
+    default int getLaneCount() {
+        return 0;
+    }
+
+    default int getLaneQueueSize(int lane) {
+        return 0;
+    }
+
+    /**
+     * 队列满时各溢出处理结果的次数，key为处理结果，不区分处理结果的分发器为空
+     */
+    default Map<String, Long> getOverflowCounts() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * 容器关闭时调用，尽量将尚未分发的记录交给日志记录服务
+     */
+    default void shutdown() {
+    }
+}
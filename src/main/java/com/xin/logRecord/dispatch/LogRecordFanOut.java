@@ -0,0 +1,72 @@
+package com.xin.logRecord.dispatch;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+import com.xin.logRecord.configuration.LogRecordProperties;
+import com.xin.logRecord.metrics.LogRecordMetrics;
+import com.xin.logRecord.service.LogRecordBatchService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 将每条记录同时交给多个日志记录服务，每个服务拥有独立的队列、写入线程与熔断器
+ * 记录不会被复制，各服务共享同一个logRecordDTO实例，因此日志记录服务不应修改传入的记录
+ */
+@Slf4j
+public class LogRecordFanOut {
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+    private final List<LogRecordSinkChannel> channels;
+
+    /**
+     * @param sinks bean名称 -> 日志记录服务
+     */
+    public LogRecordFanOut(Map<String, LogRecordBatchService> sinks, LogRecordProperties.FanOut fanOut, LogRecordMetrics logRecordMetrics) {
+        List<LogRecordSinkChannel> created = new ArrayList<>(sinks.size());
+        sinks.forEach((name, sink) -> {
+            LogRecordProperties.Sink config = fanOut.getSinks().getOrDefault(name, fanOut);
+            LogRecordSinkChannel channel = new LogRecordSinkChannel(name, sink, config, logRecordMetrics);
+            logRecordMetrics.registerSink(name, channel::snapshot);
+            created.add(channel);
+        });
+        this.channels = Collections.unmodifiableList(created);
+        log.info("LogRecordFanOut init sinks {}", sinks.keySet());
+    }
+
+    public void record(List<LogRecordDTO> logRecordDTOs) {
+        for (int i = 0, size = logRecordDTOs.size(); i < size; i++) {
+            LogRecordDTO logRecordDTO = logRecordDTOs.get(i);
+            for (int j = 0, channelCount = channels.size(); j < channelCount; j++) {
+                channels.get(j).offer(logRecordDTO);
+            }
+        }
+    }
+
+    /**
+     * 各通道的写入线程同时处理剩余记录，总等待时间不超过SHUTDOWN_TIMEOUT_MS
+     */
+    public void shutdown() {
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MS;
+        for (LogRecordSinkChannel channel : channels) {
+            channel.shutdown(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+    }
+
+    public List<LogRecordSinkChannel> getChannels() {
+        return channels;
+    }
+
+    /**
+     * 全部通道中等待写入的记录数
+     */
+    public int getQueueSize() {
+        int size = 0;
+        for (LogRecordSinkChannel channel : channels) {
+            size += channel.getQueueSize();
+        }
+        return size;
+    }
+}
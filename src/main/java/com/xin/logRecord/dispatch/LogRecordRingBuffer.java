@@ -0,0 +1,147 @@
+package com.xin.logRecord.dispatch;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+import com.xin.logRecord.metrics.LogRecordLatencyHistogram;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 预分配槽位的有界环形缓冲区(多生产者，基于每个槽位的序号实现无锁入队与出队)
+ * 槽位在构造时一次性分配并循环复用，入队时不会为每条记录分配节点对象
+ */
+public final class LogRecordRingBuffer {
+    private final Slot[] slots;
+
+    private final int mask;
+
+    // 下一个可写入的位置
+    private final AtomicLong tail = new AtomicLong();
+
+    // 下一个可读取的位置
+    private final AtomicLong head = new AtomicLong();
+
+    public LogRecordRingBuffer(int capacity) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(i);
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * 写入一条记录，缓冲区已满时返回false
+     */
+    public boolean offer(LogRecordDTO logRecordDTO) {
+        return offer(logRecordDTO, 0);
+    }
+
+    /**
+     * 写入一条记录并保存入队时间(纳秒)，用于统计排队耗时
+     */
+    public boolean offer(LogRecordDTO logRecordDTO, long enqueueTime) {
+        Slot slot;
+        long pos = tail.get();
+        for (;;) {
+            slot = slots[(int) (pos & mask)];
+            long diff = slot.sequence - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+        slot.logRecordDTO = logRecordDTO;
+        slot.enqueueTime = enqueueTime;
+        // 序号的volatile写保证记录对读取方可见
+        slot.sequence = pos + 1;
+        return true;
+    }
+
+    /**
+     * 取出最早的一条记录，缓冲区为空时返回null
+     */
+    public LogRecordDTO poll() {
+        return poll(null, 0);
+    }
+
+    private LogRecordDTO poll(LogRecordLatencyHistogram queueWait, long now) {
+        Slot slot;
+        long pos = head.get();
+        for (;;) {
+            slot = slots[(int) (pos & mask)];
+            long diff = slot.sequence - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+        LogRecordDTO logRecordDTO = slot.logRecordDTO;
+        if (queueWait != null) {
+            queueWait.record(now - slot.enqueueTime);
+        }
+        slot.logRecordDTO = null;
+        slot.sequence = pos + mask + 1;
+        return logRecordDTO;
+    }
+
+    /**
+     * 最多取出maxElements条记录放入batch，返回实际取出的条数
+     */
+    public int drainTo(List<LogRecordDTO> batch, int maxElements) {
+        return drainTo(batch, maxElements, null);
+    }
+
+    /**
+     * 最多取出maxElements条记录放入batch，queueWait不为null时记录每条记录的排队耗时
+     */
+    public int drainTo(List<LogRecordDTO> batch, int maxElements, LogRecordLatencyHistogram queueWait) {
+        long now = queueWait == null ? 0 : System.nanoTime();
+        int count = 0;
+        while (count < maxElements) {
+            LogRecordDTO logRecordDTO = poll(queueWait, now);
+            if (logRecordDTO == null) {
+                break;
+            }
+            batch.add(logRecordDTO);
+            count++;
+        }
+        return count;
+    }
+
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, slots.length));
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    private static final class Slot {
+        private volatile long sequence;
+
+        private LogRecordDTO logRecordDTO;
+
+        private long enqueueTime;
+
+        private Slot(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
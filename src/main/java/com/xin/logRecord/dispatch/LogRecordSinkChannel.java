@@ -0,0 +1,207 @@
+package com.xin.logRecord.dispatch;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+import com.xin.logRecord.configuration.LogRecordProperties;
+import com.xin.logRecord.constant.OverflowPolicy;
+import com.xin.logRecord.metrics.LogRecordMetrics;
+import com.xin.logRecord.metrics.LogRecordSinkSnapshot;
+import com.xin.logRecord.service.LogRecordBatchService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 扇出模式下单个日志记录服务的独立通道：有界队列 + 专用写入线程 + 熔断器
+ * 某个服务变慢或不可用时只会填满自己的队列，不影响其他服务
+ */
+@Slf4j
+public class LogRecordSinkChannel {
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    private final String name;
+
+    // 完成延迟解析并统计该服务的调用耗时与失败次数
+    private final LogRecordSinkInvoker sinkInvoker;
+
+    private final LogRecordMetrics logRecordMetrics;
+
+    private final BlockingQueue<LogRecordDTO> queue;
+
+    private final int batchSize;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final long blockTimeoutMs;
+
+    private final LogRecordCircuitBreaker circuitBreaker;
+
+    private final Thread[] workers;
+
+    private volatile boolean running = true;
+
+    private final LongAdder enqueuedCount = new LongAdder();
+
+    private final LongAdder writtenCount = new LongAdder();
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    private final LongAdder failureCount = new LongAdder();
+
+    // 因熔断被丢弃的记录数
+    private final LongAdder shedCount = new LongAdder();
+
+    public LogRecordSinkChannel(String name, LogRecordBatchService sink, LogRecordProperties.Sink config, LogRecordMetrics logRecordMetrics) {
+        this.name = name;
+        this.sinkInvoker = LogRecordSinkInvoker.forSink(name, sink, logRecordMetrics);
+        this.logRecordMetrics = logRecordMetrics;
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.batchSize = Math.max(1, config.getBatchSize());
+        this.overflowPolicy = config.getOverflowPolicy();
+        this.blockTimeoutMs = config.getBlockTimeoutMs();
+        this.circuitBreaker = new LogRecordCircuitBreaker(config.getFailureThreshold(), config.getOpenMs());
+        this.workers = new Thread[Math.max(1, config.getWorkers())];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Thread(this::consumeLoop, "log-record-sink-" + name + "-" + (i + 1));
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+        log.info("LogRecordSinkChannel [{}] init queueCapacity [{}] workers [{}] overflowPolicy [{}]",
+                name, config.getQueueCapacity(), workers.length, overflowPolicy);
+    }
+
+    /**
+     * 放入该服务的队列，多个通道共享同一个logRecordDTO实例
+     */
+    public void offer(LogRecordDTO logRecordDTO) {
+        if (circuitBreaker.isOpen()) {
+            shed(1);
+            return;
+        }
+        if (queue.offer(logRecordDTO)) {
+            enqueuedCount.increment();
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                for (int i = 0; i < 3; i++) {
+                    if (queue.poll() != null) {
+                        dropped();
+                    }
+                    if (queue.offer(logRecordDTO)) {
+                        enqueuedCount.increment();
+                        return;
+                    }
+                }
+                dropped();
+                break;
+            case BLOCK:
+                try {
+                    if (queue.offer(logRecordDTO, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        enqueuedCount.increment();
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                dropped();
+                break;
+            case CALLER_RUNS:
+                logRecordMetrics.recordRejected();
+                write(Collections.singletonList(logRecordDTO));
+                break;
+            case DROP_NEWEST:
+            default:
+                dropped();
+                break;
+        }
+    }
+
+    /**
+     * 停止接收新记录，等待写入线程处理完队列中的记录
+     */
+    public void shutdown(long timeoutMs) {
+        running = false;
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (!queue.isEmpty()) {
+            log.warn("LogRecordSinkChannel [{}] shutdown timeout, [{}] records remaining", name, queue.size());
+        }
+    }
+
+    private void consumeLoop() {
+        // 批次列表循环复用，日志记录服务不应在调用返回后继续持有该列表
+        List<LogRecordDTO> batch = new ArrayList<>(batchSize);
+        while (true) {
+            LogRecordDTO first;
+            try {
+                first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (first == null) {
+                if (!running) {
+                    break;
+                }
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<LogRecordDTO> batch) {
+        if (!circuitBreaker.allowRequest()) {
+            shed(batch.size());
+            return;
+        }
+        try {
+            sinkInvoker.recordOrThrow(batch);
+            writtenCount.add(batch.size());
+            circuitBreaker.onSuccess();
+        } catch (Exception e) {
+            failureCount.add(batch.size());
+            circuitBreaker.onFailure();
+            log.error("LogRecordSinkChannel [{}] record error", name, e);
+        }
+    }
+
+    // 熔断丢弃的记录同时计入全局丢弃次数
+    private void shed(int count) {
+        shedCount.add(count);
+        logRecordMetrics.recordDropped(count);
+    }
+
+    private void dropped() {
+        droppedCount.increment();
+        logRecordMetrics.recordDropped();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public LogRecordSinkSnapshot snapshot() {
+        return new LogRecordSinkSnapshot(queue.size(), enqueuedCount.sum(), writtenCount.sum(), droppedCount.sum(),
+                failureCount.sum(), shedCount.sum(), circuitBreaker.getState().name(),
+                logRecordMetrics.getSinkHistogram(name).snapshot());
+    }
+}
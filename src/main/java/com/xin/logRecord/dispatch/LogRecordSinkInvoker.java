@@ -0,0 +1,93 @@
+package com.xin.logRecord.dispatch;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+import com.xin.logRecord.metrics.LogRecordLatencyHistogram;
+import com.xin.logRecord.metrics.LogRecordMetrics;
+import com.xin.logRecord.metrics.LogRecordStage;
+import com.xin.logRecord.service.LogRecordBatchService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * 调用日志记录服务并统计耗时与失败次数，供各分发器共用
+ */
+@Slf4j
+public class LogRecordSinkInvoker {
+    private final LogRecordBatchService logRecordBatchService;
+
+    private final LogRecordMetrics logRecordMetrics;
+
+    // 是否计入SINK阶段耗时，扇出模式下分发器只是放入各服务的队列，由各通道计入
+    private final boolean recordSinkStage;
+
+    // 扇出模式下单个日志记录服务的耗时，其余情况为null
+    private final LogRecordLatencyHistogram sinkHistogram;
+
+    public LogRecordSinkInvoker(LogRecordBatchService logRecordBatchService, LogRecordMetrics logRecordMetrics) {
+        this(logRecordBatchService, logRecordMetrics, true, null);
+    }
+
+    private LogRecordSinkInvoker(LogRecordBatchService logRecordBatchService, LogRecordMetrics logRecordMetrics,
+                                 boolean recordSinkStage, LogRecordLatencyHistogram sinkHistogram) {
+        this.logRecordBatchService = logRecordBatchService;
+        this.logRecordMetrics = logRecordMetrics;
+        this.recordSinkStage = recordSinkStage;
+        this.sinkHistogram = sinkHistogram;
+    }
+
+    /**
+     * 扇出模式下分发器使用，不计入SINK阶段耗时
+     */
+    public static LogRecordSinkInvoker forFanOut(LogRecordBatchService fanOut, LogRecordMetrics logRecordMetrics) {
+        return new LogRecordSinkInvoker(fanOut, logRecordMetrics, false, null);
+    }
+
+    /**
+     * 扇出模式下单个通道使用，同时计入SINK阶段与该服务自己的耗时
+     */
+    public static LogRecordSinkInvoker forSink(String name, LogRecordBatchService sink, LogRecordMetrics logRecordMetrics) {
+        return new LogRecordSinkInvoker(sink, logRecordMetrics, true, logRecordMetrics.getSinkHistogram(name));
+    }
+
+    /**
+     * 写入日志记录服务，异常只记录日志不向外抛出
+     */
+    public void record(List<LogRecordDTO> logRecordDTOs) {
+        try {
+            recordOrThrow(logRecordDTOs);
+        } catch (Exception e) {
+            log.error("LogRecordSinkInvoker record error", e);
+        }
+    }
+
+    /**
+     * 先完成延迟解析的模板，再写入日志记录服务，异常向外抛出由调用方决定是否重试
+     */
+    public void recordOrThrow(List<LogRecordDTO> logRecordDTOs) {
+        for (int i = 0, size = logRecordDTOs.size(); i < size; i++) {
+            logRecordDTOs.get(i).completeDeferred();
+        }
+        long start = logRecordMetrics.startTime();
+        try {
+            logRecordBatchService.record(logRecordDTOs);
+        } catch (RuntimeException e) {
+            logRecordMetrics.recordSinkFailure();
+            throw e;
+        } finally {
+            if (start != 0) {
+                long nanos = System.nanoTime() - start;
+                if (recordSinkStage) {
+                    logRecordMetrics.recordStageNanos(LogRecordStage.SINK, nanos);
+                }
+                if (sinkHistogram != null) {
+                    sinkHistogram.record(nanos);
+                }
+            }
+        }
+    }
+
+    public LogRecordMetrics getLogRecordMetrics() {
+        return logRecordMetrics;
+    }
+}
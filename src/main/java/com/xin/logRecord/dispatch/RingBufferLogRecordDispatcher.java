@@ -0,0 +1,235 @@
+package com.xin.logRecord.dispatch;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+import com.xin.logRecord.configuration.LogRecordProperties;
+import com.xin.logRecord.constant.OverflowPolicy;
+import com.xin.logRecord.constant.WaitStrategy;
+import com.xin.logRecord.metrics.LogRecordLatencyHistogram;
+import com.xin.logRecord.metrics.LogRecordMetrics;
+import com.xin.logRecord.metrics.LogRecordStage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于预分配环形缓冲区的分发器，由单独的消费线程批量取出记录写入日志记录服务
+ * 缓冲区满时按OverflowPolicy处理，并分别统计各处理结果的次数
+ */
+@Slf4j
+public class RingBufferLogRecordDispatcher implements LogRecordDispatcher {
+    private static final int SPIN_TRIES = 100;
+
+    private static final int YIELD_TRIES = 200;
+
+    private final LogRecordRingBuffer ringBuffer;
+
+    private final LogRecordSinkInvoker sinkInvoker;
+
+    private final LogRecordMetrics logRecordMetrics;
+
+    // 未开启指标时为null
+    private final LogRecordLatencyHistogram queueWait;
+
+    private final WaitStrategy waitStrategy;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final long blockTimeoutNanos;
+
+    private final int batchSize;
+
+    private final Thread consumer;
+
+    private volatile boolean running = true;
+
+    // 消费线程是否已挂起(仅BLOCKING等待策略使用)
+    private volatile boolean consumerParked;
+
+    private final LongAdder publishedCount = new LongAdder();
+
+    private final LongAdder droppedNewestCount = new LongAdder();
+
+    private final LongAdder droppedOldestCount = new LongAdder();
+
+    private final LongAdder blockTimeoutCount = new LongAdder();
+
+    private final LongAdder callerRunsCount = new LongAdder();
+
+    public RingBufferLogRecordDispatcher(LogRecordSinkInvoker sinkInvoker, LogRecordProperties.RingBuffer ringBuffer) {
+        String threadName = "log-record-ring-buffer";
+        this.ringBuffer = new LogRecordRingBuffer(ringBuffer.getCapacity());
+        this.sinkInvoker = sinkInvoker;
+        this.logRecordMetrics = sinkInvoker.getLogRecordMetrics();
+        this.queueWait = logRecordMetrics.isEnabled() ? logRecordMetrics.getStageHistogram(LogRecordStage.QUEUE_WAIT) : null;
+        this.waitStrategy = ringBuffer.getWaitStrategy();
+        this.overflowPolicy = ringBuffer.getOverflowPolicy();
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(ringBuffer.getBlockTimeoutMs());
+        this.batchSize = Math.max(1, ringBuffer.getBatchSize());
+        this.consumer = new Thread(this::consumeLoop, threadName);
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+        log.info("RingBufferLogRecordDispatcher [{}] init capacity [{}] waitStrategy [{}] overflowPolicy [{}]",
+                threadName, this.ringBuffer.capacity(), waitStrategy, overflowPolicy);
+    }
+
+    @Override
+    public void dispatch(LogRecordDTO logRecordDTO) {
+        long enqueueTime = logRecordMetrics.startTime();
+        if (ringBuffer.offer(logRecordDTO, enqueueTime)) {
+            published();
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                // 每次移出一条最早的记录后重试，竞争激烈时最多重试有限次
+                for (int i = 0; i < 3; i++) {
+                    if (ringBuffer.poll() != null) {
+                        droppedOldestCount.increment();
+                        logRecordMetrics.recordDropped();
+                    }
+                    if (ringBuffer.offer(logRecordDTO, enqueueTime)) {
+                        published();
+                        return;
+                    }
+                }
+                droppedNewestCount.increment();
+                logRecordMetrics.recordDropped();
+                break;
+            case BLOCK:
+                long deadline = System.nanoTime() + blockTimeoutNanos;
+                while (System.nanoTime() - deadline < 0) {
+                    LockSupport.parkNanos(this, 50_000L);
+                    if (ringBuffer.offer(logRecordDTO, enqueueTime)) {
+                        published();
+                        return;
+                    }
+                }
+                blockTimeoutCount.increment();
+                logRecordMetrics.recordDropped();
+                break;
+            case CALLER_RUNS:
+                callerRunsCount.increment();
+                logRecordMetrics.recordRejected();
+                sinkInvoker.record(Collections.singletonList(logRecordDTO));
+                break;
+            case DROP_NEWEST:
+            default:
+                droppedNewestCount.increment();
+                logRecordMetrics.recordDropped();
+                break;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void published() {
+        publishedCount.increment();
+        if (consumerParked) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    private void consumeLoop() {
+        // 批次列表循环复用，日志记录服务不应在调用返回后继续持有该列表
+        List<LogRecordDTO> batch = new ArrayList<>(batchSize);
+        int idleCount = 0;
+        while (true) {
+            if (ringBuffer.drainTo(batch, batchSize, queueWait) > 0) {
+                idleCount = 0;
+                try {
+                    sinkInvoker.record(batch);
+                } catch (Throwable e) {
+                    // 日志记录服务抛出Error时消费线程继续运行，否则生产者只能等待超时后丢弃
+                    logRecordMetrics.recordSinkFailure();
+                    log.error("RingBufferLogRecordDispatcher consume error", e);
+                } finally {
+                    batch.clear();
+                }
+                continue;
+            }
+            if (!running) {
+                break;
+            }
+            idleCount = idle(idleCount);
+        }
+    }
+
+    private int idle(int idleCount) {
+        switch (waitStrategy) {
+            case BUSY_SPIN:
+                return idleCount;
+            case YIELDING:
+                if (idleCount >= SPIN_TRIES) {
+                    Thread.yield();
+                }
+                return idleCount + 1;
+            case SLEEPING:
+                if (idleCount >= SPIN_TRIES + YIELD_TRIES) {
+                    LockSupport.parkNanos(this, 100_000L);
+                } else if (idleCount >= SPIN_TRIES) {
+                    Thread.yield();
+                }
+                return idleCount + 1;
+            case BLOCKING:
+            default:
+                consumerParked = true;
+                // 挂起前再次检查，避免错过生产者的唤醒；超时挂起兜底
+                if (ringBuffer.size() == 0 && running) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(10));
+                }
+                consumerParked = false;
+                return idleCount + 1;
+        }
+    }
+
+    @Override
+    public int getQueueSize() {
+        return ringBuffer.size();
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.sum();
+    }
+
+    public long getDroppedNewestCount() {
+        return droppedNewestCount.sum();
+    }
+
+    public long getDroppedOldestCount() {
+        return droppedOldestCount.sum();
+    }
+
+    public long getBlockTimeoutCount() {
+        return blockTimeoutCount.sum();
+    }
+
+    public long getCallerRunsCount() {
+        return callerRunsCount.sum();
+    }
+
+    @Override
+    public Map<String, Long> getOverflowCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("dropNewest", getDroppedNewestCount());
+        counts.put("dropOldest", getDroppedOldestCount());
+        counts.put("blockTimeout", getBlockTimeoutCount());
+        counts.put("callerRuns", getCallerRunsCount());
+        return counts;
+    }
+}
@@ -0,0 +1,122 @@
+package com.xin.logRecord.dispatch;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+import com.xin.logRecord.configuration.LogRecordProperties;
+import com.xin.logRecord.spool.LogRecordSpool;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 先将记录写入本地spool，再由单独的drainer线程读取后写入日志记录服务
+ * 日志记录服务写入成功后才确认，写入失败时按退避时间重试，期间新记录继续写入磁盘而不占用堆内存
+ */
+@Slf4j
+public class SpoolingLogRecordDispatcher implements LogRecordDispatcher {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final LogRecordSpool spool;
+
+    private final LogRecordSinkInvoker sinkInvoker;
+
+    private final int batchSize;
+
+    private final long retryBackoffMs;
+
+    private final long maxRetryBackoffMs;
+
+    private final Thread drainer;
+
+    private volatile boolean running = true;
+
+    private final LongAdder fallbackCount = new LongAdder();
+
+    private final LongAdder failureCount = new LongAdder();
+
+    public SpoolingLogRecordDispatcher(LogRecordSinkInvoker sinkInvoker, LogRecordProperties.Spool spool) throws IOException {
+        this.spool = new LogRecordSpool(Paths.get(spool.getDir()), spool.getSegmentSize(), spool.isFsync());
+        this.sinkInvoker = sinkInvoker;
+        this.batchSize = Math.max(1, spool.getBatchSize());
+        this.retryBackoffMs = Math.max(1, spool.getRetryBackoffMs());
+        this.maxRetryBackoffMs = Math.max(this.retryBackoffMs, spool.getMaxRetryBackoffMs());
+        this.drainer = new Thread(this::drainLoop, "log-record-spool-drainer");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    @Override
+    public void dispatch(LogRecordDTO logRecordDTO) {
+        // spool只保存编码后的字段，延迟解析的模板与后置处理需在写入前于调用线程完成，且在spool的锁之外执行
+        logRecordDTO.completeDeferred();
+        // 无法写入spool时(记录过大、磁盘异常等)直接写入日志记录服务
+        if (!spool.append(logRecordDTO)) {
+            fallbackCount.increment();
+            sinkInvoker.getLogRecordMetrics().recordRejected();
+            sinkInvoker.record(Collections.singletonList(logRecordDTO));
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // drainer仍在写入(如日志记录服务很慢)时不关闭spool，避免其在已关闭的spool上确认或读取；
+        // 未确认的记录保留在磁盘上，下次启动时重新写入
+        if (drainer.isAlive()) {
+            log.warn("SpoolingLogRecordDispatcher shutdown timeout, drainer still running, spool left open");
+            return;
+        }
+        spool.close();
+    }
+
+    private void drainLoop() {
+        List<LogRecordDTO> batch = new ArrayList<>(batchSize);
+        while (running) {
+            if (spool.read(batch, batchSize) == 0) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            long backoffMs = retryBackoffMs;
+            while (true) {
+                try {
+                    sinkInvoker.recordOrThrow(batch);
+                    spool.acknowledge();
+                    break;
+                } catch (Exception e) {
+                    failureCount.increment();
+                    log.warn("SpoolingLogRecordDispatcher record error, retry in [{}]ms", backoffMs, e);
+                    if (!running) {
+                        break;
+                    }
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(backoffMs));
+                    backoffMs = Math.min(backoffMs * 2, maxRetryBackoffMs);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    public int getSegmentCount() {
+        return spool.getSegmentCount();
+    }
+
+    public long getFallbackCount() {
+        return fallbackCount.sum();
+    }
+
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+}
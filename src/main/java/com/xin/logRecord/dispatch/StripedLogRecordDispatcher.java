@@ -0,0 +1,263 @@
+package com.xin.logRecord.dispatch;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+import com.xin.logRecord.configuration.LogRecordProperties;
+import com.xin.logRecord.constant.OverflowPolicy;
+import com.xin.logRecord.metrics.LogRecordMetrics;
+import com.xin.logRecord.metrics.LogRecordStage;
+import com.xin.logRecord.thread.LogRecordThreadPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 按bizId(或keyExpression)哈希到固定数量的通道，每个通道同一时刻只有一个线程池任务在写入，
+ * 同一业务对象的记录按分发顺序写入日志记录服务，不同通道之间仍在线程池中并行
+ * 通道满时按OverflowPolicy处理，CALLER_RUNS会破坏顺序，按BLOCK处理
+ */
+@Slf4j
+public class StripedLogRecordDispatcher implements LogRecordDispatcher {
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+    private final LogRecordThreadPool logRecordThreadPool;
+
+    private final LogRecordSinkInvoker sinkInvoker;
+
+    private final LogRecordMetrics logRecordMetrics;
+
+    private final Lane[] lanes;
+
+    private final int batchSize;
+
+    private final int maxBatchesPerRun;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final long blockTimeoutMs;
+
+    // 为null时以bizId为key
+    private final Expression keyExpression;
+
+    private final EvaluationContext keyContext = SimpleEvaluationContext.forReadOnlyDataBinding().build();
+
+    private volatile boolean running = true;
+
+    public StripedLogRecordDispatcher(LogRecordThreadPool logRecordThreadPool, LogRecordSinkInvoker sinkInvoker,
+                                      LogRecordProperties.Striped striped) {
+        this.logRecordThreadPool = logRecordThreadPool;
+        this.sinkInvoker = sinkInvoker;
+        this.logRecordMetrics = sinkInvoker.getLogRecordMetrics();
+        this.batchSize = Math.max(1, striped.getBatchSize());
+        this.maxBatchesPerRun = Math.max(1, striped.getMaxBatchesPerRun());
+        this.overflowPolicy = striped.getOverflowPolicy();
+        this.blockTimeoutMs = striped.getBlockTimeoutMs();
+        this.keyExpression = StringUtils.hasText(striped.getKeyExpression())
+                ? new SpelExpressionParser().parseExpression(striped.getKeyExpression()) : null;
+        this.lanes = new Lane[Math.max(1, striped.getLanes())];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(striped.getLaneCapacity());
+        }
+        log.info("StripedLogRecordDispatcher init lanes [{}] laneCapacity [{}] maxBatchesPerRun [{}] keyExpression [{}] overflowPolicy [{}]",
+                lanes.length, striped.getLaneCapacity(), maxBatchesPerRun, striped.getKeyExpression(), overflowPolicy);
+    }
+
+    @Override
+    public void dispatch(LogRecordDTO logRecordDTO) {
+        // 关闭后到达的记录直接在当前线程写入
+        if (!running) {
+            logRecordMetrics.recordRejected();
+            sinkInvoker.record(Collections.singletonList(logRecordDTO));
+            return;
+        }
+        Lane lane = lanes[laneIndex(key(logRecordDTO))];
+        if (offer(lane, new PendingRecord(logRecordDTO, logRecordMetrics.startTime()))) {
+            schedule(lane);
+            return;
+        }
+        logRecordMetrics.recordDropped();
+    }
+
+    @Override
+    public int getQueueSize() {
+        int size = 0;
+        for (Lane lane : lanes) {
+            size += lane.queue.size();
+        }
+        return size;
+    }
+
+    @Override
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    @Override
+    public int getLaneQueueSize(int lane) {
+        return lanes[lane].queue.size();
+    }
+
+    /**
+     * 等待各通道正在执行的写入任务结束，再在当前线程写入剩余记录
+     */
+    @Override
+    public void shutdown() {
+        running = false;
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MS;
+        for (Lane lane : lanes) {
+            while (!lane.scheduled.compareAndSet(false, true)) {
+                if (System.currentTimeMillis() >= deadline || !sleep()) {
+                    log.warn("StripedLogRecordDispatcher shutdown timeout, [{}] records remaining", getQueueSize());
+                    return;
+                }
+            }
+            while (drain(lane) > 0) {
+                // 写入剩余记录
+            }
+        }
+    }
+
+    private boolean offer(Lane lane, PendingRecord record) {
+        if (lane.queue.offer(record)) {
+            return true;
+        }
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                for (int i = 0; i < 3; i++) {
+                    if (lane.queue.poll() != null) {
+                        logRecordMetrics.recordDropped();
+                    }
+                    if (lane.queue.offer(record)) {
+                        return true;
+                    }
+                }
+                return false;
+            case BLOCK:
+            case CALLER_RUNS:
+                try {
+                    return lane.queue.offer(record, blockTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            case DROP_NEWEST:
+            default:
+                return false;
+        }
+    }
+
+    // 通道空闲时提交一个写入任务，已有任务在执行时由其继续处理新记录
+    private void schedule(Lane lane) {
+        if (!lane.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            logRecordThreadPool.execute(() -> run(lane));
+        } catch (RejectedExecutionException e) {
+            // 任务未能提交时标记不会被释放，由当前线程写入一轮并释放，剩余记录由该通道的下一次分发或关闭时写入
+            logRecordMetrics.recordRejected();
+            drainAndRelease(lane);
+        }
+    }
+
+    // 预算用完或释放前有新记录到达时重新提交，排到线程池队列末尾，让其他通道的任务先执行
+    private void run(Lane lane) {
+        drainAndRelease(lane);
+        if (!lane.queue.isEmpty()) {
+            schedule(lane);
+        }
+    }
+
+    // 最多写入maxBatchesPerRun批后释放标记
+    private void drainAndRelease(Lane lane) {
+        try {
+            for (int i = 0; i < maxBatchesPerRun && drain(lane) > 0; i++) {
+                // 按批写入
+            }
+        } finally {
+            // 日志记录服务抛出Error时也要释放，否则该通道不再被调度
+            lane.scheduled.set(false);
+        }
+    }
+
+    private int drain(Lane lane) {
+        List<PendingRecord> pending = new ArrayList<>(Math.min(batchSize, lane.queue.size() + 1));
+        lane.queue.drainTo(pending, batchSize);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<LogRecordDTO> batch = new ArrayList<>(pending.size());
+        long now = logRecordMetrics.isEnabled() ? System.nanoTime() : 0;
+        for (PendingRecord record : pending) {
+            logRecordMetrics.recordStageNanos(LogRecordStage.QUEUE_WAIT, now - record.enqueueTime);
+            batch.add(record.logRecordDTO);
+        }
+        sinkInvoker.record(batch);
+        return batch.size();
+    }
+
+    private String key(LogRecordDTO logRecordDTO) {
+        if (keyExpression == null) {
+            return logRecordDTO.getBizId();
+        }
+        try {
+            return keyExpression.getValue(keyContext, logRecordDTO, String.class);
+        } catch (RuntimeException e) {
+            log.warn("StripedLogRecordDispatcher evaluate key error, fallback to bizId", e);
+            return logRecordDTO.getBizId();
+        }
+    }
+
+    // 没有key的记录不要求顺序，随机分散到各通道
+    private int laneIndex(String key) {
+        if (key == null) {
+            return ThreadLocalRandom.current().nextInt(lanes.length);
+        }
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    private static boolean sleep() {
+        try {
+            Thread.sleep(1);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class Lane {
+        private final BlockingQueue<PendingRecord> queue;
+
+        // 是否已有写入任务提交或正在执行
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Lane(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        }
+    }
+
+    private static final class PendingRecord {
+        private final LogRecordDTO logRecordDTO;
+
+        private final long enqueueTime;
+
+        private PendingRecord(LogRecordDTO logRecordDTO, long enqueueTime) {
+            this.logRecordDTO = logRecordDTO;
+            this.enqueueTime = enqueueTime;
+        }
+    }
+}
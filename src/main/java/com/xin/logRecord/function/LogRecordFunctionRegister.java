@@ -1,42 +1,142 @@
 package com.xin.logRecord.function;
 
+import com.xin.logRecord.annotation.LogRecord;
 import com.xin.logRecord.annotation.LogRecordFunction;
+import com.xin.logRecord.annotation.LogRecords;
+import com.xin.logRecord.index.LogRecordIndex;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
-public class LogRecordFunctionRegister implements BeanPostProcessor {
-    private final static Map<String, Method> functionMap = new HashMap<>();
+public class LogRecordFunctionRegister implements BeanPostProcessor, EnvironmentAware {
+    /**
+     * 只读的共享函数表，注册时整体替换(copy-on-write)，解析时无需加锁也无需拷贝
+     */
+    private static volatile Map<String, Method> functionMap = Collections.emptyMap();
+
+    /**
+     * 扫描bean时顺带收集的@LogRecord方法，供启动校验使用，避免再次扫描全部bean
+     */
+    private static final Set<Method> logRecordMethods = Collections.synchronizedSet(new LinkedHashSet<>());
+
+    /**
+     * 已从编译期生成的索引中注册函数，不再扫描每个bean的方法
+     */
+    private boolean indexed;
+
+    /**
+     * BeanPostProcessor先于配置类实例化，直接从Environment中读取配置
+     */
+    @Override
+    public void setEnvironment(Environment environment) {
+        if (!environment.getProperty("log-record.index.enabled", Boolean.class, false)) {
+            return;
+        }
+        try {
+            LogRecordIndex index = LogRecordIndex.load(ClassUtils.getDefaultClassLoader());
+            if (index != null) {
+                registerFromIndex(index);
+                this.indexed = true;
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("LogRecordFunctionRegister load index error, fall back to scanning beans", e);
+        }
+    }
 
     /**
      * postProcessBeforeInitialization处理的是未被代理的对象
      */
     @Override
     public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (indexed) {
+            return bean;
+        }
         for (Method method : bean.getClass().getDeclaredMethods()) {
             if (method.getDeclaredAnnotation(LogRecordFunction.class) != null && isStaticMethod(method)) {
                 String name = method.getDeclaredAnnotation(LogRecordFunction.class).value();
                 name = name.length() == 0 ? method.getName() : name;
-                functionMap.put(name, method);
+                putFunction(name, method);
                 log.info("LogRecordFunctionRegister register custom function [{}] as name [{}]", method.getName(), name);
             }
         }
+        collectLogRecordMethods(bean.getClass());
         return bean;
     }
 
+    /**
+     * @LogRecord方法可能声明在父类中，沿继承链收集
+     */
+    private static void collectLogRecordMethods(Class<?> type) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Method method : current.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(LogRecord.class) || method.isAnnotationPresent(LogRecords.class)) {
+                    logRecordMethods.add(method);
+                }
+            }
+        }
+    }
+
+    private static void registerFromIndex(LogRecordIndex index) {
+        for (LogRecordIndex.Entry entry : index.getFunctions()) {
+            Method method;
+            try {
+                method = entry.resolve(ClassUtils.getDefaultClassLoader());
+            } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+                log.warn("LogRecordFunctionRegister resolve indexed function [{}] error", entry, e);
+                continue;
+            }
+            LogRecordFunction logRecordFunction = method.getDeclaredAnnotation(LogRecordFunction.class);
+            if (logRecordFunction != null && isStaticMethod(method)) {
+                String name = logRecordFunction.value().length() == 0 ? method.getName() : logRecordFunction.value();
+                putFunction(name, method);
+                log.info("LogRecordFunctionRegister register indexed custom function [{}] as name [{}]", method.getName(), name);
+            }
+        }
+    }
+
+    public static Map<String, Method> getFunctions() {
+        return functionMap;
+    }
+
     public static void registerFunction(StandardEvaluationContext context) {
         functionMap.forEach(context::registerFunction);
     }
 
+    /**
+     * 未从索引注册时，返回扫描bean过程中收集到的@LogRecord方法
+     */
+    public static Set<Method> getLogRecordMethods() {
+        synchronized (logRecordMethods) {
+            return new LinkedHashSet<>(logRecordMethods);
+        }
+    }
+
+    public static Method getFunction(String name) {
+        return functionMap.get(name);
+    }
+
+    private static synchronized void putFunction(String name, Method method) {
+        Map<String, Method> newFunctionMap = new HashMap<>(functionMap);
+        newFunctionMap.put(name, method);
+        functionMap = Collections.unmodifiableMap(newFunctionMap);
+    }
+
     private static boolean isStaticMethod(Method method) {
         if (method == null) {
             return false;
@@ -0,0 +1,12 @@
+package com.xin.logRecord.id;
+
+/**
+ * 日志id生成器，定义该类型的bean即可替换默认的UlidLogIdGenerator
+ */
+@FunctionalInterface
+public interface LogIdGenerator {
+    /**
+     * 生成一个日志id，会被多个线程并发调用
+     */
+    String nextId();
+}
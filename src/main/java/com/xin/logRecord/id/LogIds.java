@@ -0,0 +1,26 @@
+package com.xin.logRecord.id;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * 供解析器使用的日志id生成入口，容器中存在LogIdGenerator的bean时使用该bean
+ */
+@Slf4j
+@Component
+public class LogIds {
+    /**
+     * 未被Spring初始化时(如单独使用解析器)使用默认生成器
+     */
+    private static volatile LogIdGenerator generator = new UlidLogIdGenerator();
+
+    public LogIds(ObjectProvider<LogIdGenerator> logIdGenerator) {
+        generator = logIdGenerator.getIfAvailable(UlidLogIdGenerator::new);
+        log.info("LogIds init generator [{}]", generator.getClass().getName());
+    }
+
+    public static String nextId() {
+        return generator.nextId();
+    }
+}
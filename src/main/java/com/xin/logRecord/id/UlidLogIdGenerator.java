@@ -0,0 +1,32 @@
+package com.xin.logRecord.id;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 默认的日志id生成器，生成ULID格式的id：48位毫秒时间戳 + 80位随机数，Crockford Base32编码为26个字符
+ * 按字典序即按生成时间排序；随机数取自ThreadLocalRandom，线程之间没有竞争
+ */
+public class UlidLogIdGenerator implements LogIdGenerator {
+    private static final char[] ENCODING = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private static final long RANDOM_MASK = (1L << 40) - 1;
+
+    @Override
+    public String nextId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] chars = new char[26];
+        // 时间戳占10个字符，首字符只使用低3位
+        encode(chars, 0, 10, System.currentTimeMillis());
+        // 80位随机数拆为两段40位，各占8个字符
+        encode(chars, 10, 8, random.nextLong() & RANDOM_MASK);
+        encode(chars, 18, 8, random.nextLong() & RANDOM_MASK);
+        return new String(chars);
+    }
+
+    private static void encode(char[] chars, int offset, int length, long value) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            chars[i] = ENCODING[(int) (value & 31)];
+            value >>>= 5;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.xin.logRecord.id;
+
+import java.util.UUID;
+
+/**
+ * 以随机UUID作为日志id，与旧版本的id格式一致
+ * UUID.randomUUID()共用一个SecureRandom，高并发下会产生竞争，仅在需要兼容旧格式时使用
+ */
+public class UuidLogIdGenerator implements LogIdGenerator {
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,172 @@
+package com.xin.logRecord.index;
+
+import org.springframework.util.ClassUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * META-INF/log-record.index的读写，每行一个条目：
+ * function=类的二进制名#方法名(参数类型,...) 或 method=类的二进制名#方法名(参数类型,...)
+ * 注解处理器在编译期只使用其中的读写方法
+ */
+public final class LogRecordIndex {
+    public static final String INDEX_LOCATION = "META-INF/log-record.index";
+
+    static final String LOG_RECORD = "com.xin.logRecord.annotation.LogRecord";
+
+    static final String LOG_RECORDS = "com.xin.logRecord.annotation.LogRecords";
+
+    static final String LOG_RECORD_FUNCTION = "com.xin.logRecord.annotation.LogRecordFunction";
+
+    static final String FUNCTION = "function";
+
+    static final String METHOD = "method";
+
+    static final char SEPARATOR = '=';
+
+    private final List<Entry> functions;
+
+    private final List<Entry> methods;
+
+    private LogRecordIndex(List<Entry> functions, List<Entry> methods) {
+        this.functions = Collections.unmodifiableList(functions);
+        this.methods = Collections.unmodifiableList(methods);
+    }
+
+    /**
+     * 合并classpath中所有的索引文件，不存在任何索引文件时返回null
+     */
+    public static LogRecordIndex load(ClassLoader classLoader) throws IOException {
+        Enumeration<URL> urls = classLoader.getResources(INDEX_LOCATION);
+        if (!urls.hasMoreElements()) {
+            return null;
+        }
+        Set<String> entries = new LinkedHashSet<>();
+        while (urls.hasMoreElements()) {
+            try (InputStream inputStream = urls.nextElement().openStream()) {
+                entries.addAll(readEntries(inputStream));
+            }
+        }
+        List<Entry> functions = new ArrayList<>();
+        List<Entry> methods = new ArrayList<>();
+        for (String line : entries) {
+            Entry entry = parse(line);
+            if (FUNCTION.equals(entry.getKind())) {
+                functions.add(entry);
+            } else {
+                methods.add(entry);
+            }
+        }
+        return new LogRecordIndex(functions, methods);
+    }
+
+    public List<Entry> getFunctions() {
+        return functions;
+    }
+
+    public List<Entry> getMethods() {
+        return methods;
+    }
+
+    static List<String> readEntries(InputStream inputStream) throws IOException {
+        List<String> entries = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (!line.isEmpty() && line.charAt(0) != '#') {
+                entries.add(line);
+            }
+        }
+        return entries;
+    }
+
+    static void writeEntries(Collection<String> entries, OutputStream outputStream) throws IOException {
+        Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+        writer.write("# generated by LogRecordIndexProcessor\n");
+        for (String entry : entries) {
+            writer.write(entry);
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    static Entry parse(String line) {
+        int separator = line.indexOf(SEPARATOR);
+        int hash = line.indexOf('#', separator);
+        int open = line.indexOf('(', hash);
+        int close = line.lastIndexOf(')');
+        if (separator < 0 || hash < 0 || open < 0 || close < open) {
+            throw new IllegalArgumentException("Invalid log record index entry [" + line + "]");
+        }
+        String parameters = line.substring(open + 1, close);
+        String[] parameterTypes = parameters.isEmpty() ? new String[0] : parameters.split(",");
+        return new Entry(line.substring(0, separator), line.substring(separator + 1, hash), line.substring(hash + 1, open), parameterTypes);
+    }
+
+    /**
+     * 索引中的一个方法
+     */
+    public static final class Entry {
+        private final String kind;
+
+        private final String className;
+
+        private final String methodName;
+
+        private final String[] parameterTypes;
+
+        private Entry(String kind, String className, String methodName, String[] parameterTypes) {
+            this.kind = kind;
+            this.className = className;
+            this.methodName = methodName;
+            this.parameterTypes = parameterTypes;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+
+        public String[] getParameterTypes() {
+            return parameterTypes.clone();
+        }
+
+        public Method resolve(ClassLoader classLoader) throws ClassNotFoundException, NoSuchMethodException {
+            Class<?> type = ClassUtils.forName(className, classLoader);
+            Class<?>[] types = new Class<?>[parameterTypes.length];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = ClassUtils.forName(parameterTypes[i], classLoader);
+            }
+            return type.getDeclaredMethod(methodName, types);
+        }
+
+        @Override
+        public String toString() {
+            return className + "#" + methodName + "(" + String.join(",", parameterTypes) + ")";
+        }
+    }
+}
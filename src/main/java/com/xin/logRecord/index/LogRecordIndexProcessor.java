@@ -0,0 +1,134 @@
+package com.xin.logRecord.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 编译期生成META-INF/log-record.index，记录所有@LogRecordFunction方法和标注了@LogRecord的方法，
+ * 启动时据此注册自定义函数、预解析表达式，无需逐个扫描Spring bean的方法
+ */
+@SupportedAnnotationTypes({LogRecordIndex.LOG_RECORD, LogRecordIndex.LOG_RECORDS, LogRecordIndex.LOG_RECORD_FUNCTION})
+public class LogRecordIndexProcessor extends AbstractProcessor {
+    private final Set<String> entries = new TreeSet<>();
+
+    // 本次编译处理过的类，其旧索引条目以本次结果为准
+    private final Set<String> processedTypes = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            if (element instanceof TypeElement) {
+                collectTypes((TypeElement) element);
+            }
+        }
+        for (TypeElement annotation : annotations) {
+            String annotationName = annotation.getQualifiedName().toString();
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.METHOD) {
+                    continue;
+                }
+                ExecutableElement method = (ExecutableElement) element;
+                if (LogRecordIndex.LOG_RECORD_FUNCTION.equals(annotationName)) {
+                    entries.add(LogRecordIndex.FUNCTION + LogRecordIndex.SEPARATOR + toMethodKey(method));
+                } else {
+                    entries.add(LogRecordIndex.METHOD + LogRecordIndex.SEPARATOR + toMethodKey(method));
+                }
+            }
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void collectTypes(TypeElement type) {
+        processedTypes.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+        for (Element enclosed : type.getEnclosedElements()) {
+            if (enclosed instanceof TypeElement) {
+                collectTypes((TypeElement) enclosed);
+            }
+        }
+    }
+
+    // 类的二进制名#方法名(参数类型的二进制名,...)
+    private String toMethodKey(ExecutableElement method) {
+        TypeElement type = (TypeElement) method.getEnclosingElement();
+        StringBuilder key = new StringBuilder(processingEnv.getElementUtils().getBinaryName(type))
+                .append('#').append(method.getSimpleName()).append('(');
+        boolean first = true;
+        for (VariableElement parameter : method.getParameters()) {
+            if (!first) {
+                key.append(',');
+            }
+            key.append(toBinaryName(processingEnv.getTypeUtils().erasure(parameter.asType())));
+            first = false;
+        }
+        return key.append(')').toString();
+    }
+
+    private String toBinaryName(TypeMirror type) {
+        switch (type.getKind()) {
+            case ARRAY:
+                return toBinaryName(((ArrayType) type).getComponentType()) + "[]";
+            case DECLARED:
+                return processingEnv.getElementUtils().getBinaryName((TypeElement) ((DeclaredType) type).asElement()).toString();
+            default:
+                return type.toString();
+        }
+    }
+
+    /**
+     * 增量编译时只有部分源文件参与处理，保留已有索引中类仍然存在的条目
+     */
+    private void writeIndex() {
+        Set<String> merged = new TreeSet<>(entries);
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", LogRecordIndex.INDEX_LOCATION);
+            try (InputStream inputStream = existing.openInputStream()) {
+                for (String entry : LogRecordIndex.readEntries(inputStream)) {
+                    String className = LogRecordIndex.parse(entry).getClassName();
+                    if (!processedTypes.contains(className) && processingEnv.getElementUtils().getTypeElement(className.replace('$', '.')) != null) {
+                        merged.add(entry);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 首次编译时索引不存在
+        }
+        if (merged.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", LogRecordIndex.INDEX_LOCATION);
+            try (OutputStream outputStream = index.openOutputStream()) {
+                LogRecordIndex.writeEntries(merged, outputStream);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + LogRecordIndex.INDEX_LOCATION + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.xin.logRecord.limit;
+
+import com.xin.logRecord.beans.LogRecordMethodDescriptor;
+import com.xin.logRecord.beans.LogRecordOperation;
+import com.xin.logRecord.configuration.LogRecordProperties;
+import com.xin.logRecord.metrics.LogRecordMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 在SpEL解析前依次按全局、方法、bizType规则判断开关、采样与限流，被跳过的记录不做任何解析
+ */
+@Component
+public class LogRecordAdmission {
+    private static final String GLOBAL_KEY = "global";
+
+    private final LogRecordProperties.Limit limit;
+
+    private final LogRecordMetrics logRecordMetrics;
+
+    private final Map<String, LogRecordTokenBucket> globalBuckets = new ConcurrentHashMap<>();
+
+    // 方法与bizType的令牌桶分开存放，直接以描述符上预先计算的methodKey和bizType作为键，admit时不拼接字符串
+    private final Map<String, LogRecordTokenBucket> methodBuckets = new ConcurrentHashMap<>();
+
+    private final Map<String, LogRecordTokenBucket> bizTypeBuckets = new ConcurrentHashMap<>();
+
+    public LogRecordAdmission(LogRecordProperties logRecordProperties, LogRecordMetrics logRecordMetrics) {
+        this.limit = logRecordProperties.getLimit();
+        this.logRecordMetrics = logRecordMetrics;
+    }
+
+    /**
+     * @return 是否需要记录该注解对应的日志
+     */
+    public boolean admit(LogRecordMethodDescriptor descriptor, LogRecordOperation operation) {
+        LogRecordProperties.Rule methodRule = limit.getMethods().isEmpty() ? null : limit.getMethods().get(descriptor.getMethodKey());
+        String bizType = operation.getStaticBizType();
+        LogRecordProperties.Rule bizTypeRule = (bizType == null || limit.getBizTypes().isEmpty()) ? null : limit.getBizTypes().get(bizType);
+
+        if (!limit.isEnabled() || (methodRule != null && !methodRule.isEnabled()) || (bizTypeRule != null && !bizTypeRule.isEnabled())) {
+            return false;
+        }
+        if (!sample(limit) || !sample(methodRule) || !sample(bizTypeRule)) {
+            logRecordMetrics.recordSampledOut();
+            return false;
+        }
+        if (!acquire(globalBuckets, GLOBAL_KEY, limit)
+                || (methodRule != null && !acquire(methodBuckets, descriptor.getMethodKey(), methodRule))
+                || (bizTypeRule != null && !acquire(bizTypeBuckets, bizType, bizTypeRule))) {
+            logRecordMetrics.recordThrottled();
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean sample(LogRecordProperties.Rule rule) {
+        if (rule == null) {
+            return true;
+        }
+        double sampleRatio = rule.getSampleRatio();
+        return sampleRatio >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRatio;
+    }
+
+    private static boolean acquire(Map<String, LogRecordTokenBucket> tokenBuckets, String key, LogRecordProperties.Rule rule) {
+        double ratePerSecond = rule.getRatePerSecond();
+        if (ratePerSecond <= 0) {
+            return true;
+        }
+        int burst = rule.getBurst();
+        LogRecordTokenBucket bucket = tokenBuckets.get(key);
+        if (bucket == null || !bucket.matches(ratePerSecond, burst)) {
+            // 规则在运行时被修改后重建令牌桶
+            bucket = tokenBuckets.compute(key, (k, old) -> (old != null && old.matches(ratePerSecond, burst)) ? old : new LogRecordTokenBucket(ratePerSecond, burst));
+        }
+        return bucket.tryAcquire();
+    }
+}
@@ -0,0 +1,49 @@
+package com.xin.logRecord.limit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶(GCRA实现)，只保存下一个令牌的理论到达时间，获取令牌为一次CAS
+ */
+public final class LogRecordTokenBucket {
+    private final double ratePerSecond;
+
+    private final int burst;
+
+    // 每个令牌的间隔(纳秒)
+    private final long intervalNanos;
+
+    // 允许提前消耗的时间，即桶容量对应的时长
+    private final long toleranceNanos;
+
+    private final AtomicLong theoreticalArrivalTime;
+
+    public LogRecordTokenBucket(double ratePerSecond, int burst) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst > 0 ? burst : Math.max(1, (int) Math.ceil(ratePerSecond));
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.toleranceNanos = this.intervalNanos * (this.burst - 1);
+        this.theoreticalArrivalTime = new AtomicLong(System.nanoTime());
+    }
+
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        for (;;) {
+            long tat = theoreticalArrivalTime.get();
+            long start = tat - now > 0 ? tat : now;
+            if (start - now > toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, start + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 配置未变化时复用当前令牌桶
+     */
+    public boolean matches(double ratePerSecond, int burst) {
+        return this.ratePerSecond == ratePerSecond && (burst <= 0 || this.burst == burst);
+    }
+}
@@ -0,0 +1,36 @@
+package com.xin.logRecord.metrics;
+
+import lombok.Getter;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * 某一阶段耗时的快照(纳秒)
+ */
+@Getter
+public class LogRecordLatencySnapshot {
+    private final long count;
+
+    private final long meanNanos;
+
+    private final long p50Nanos;
+
+    private final long p90Nanos;
+
+    private final long p99Nanos;
+
+    private final long p999Nanos;
+
+    private final long maxNanos;
+
+    @ConstructorProperties({"count", "meanNanos", "p50Nanos", "p90Nanos", "p99Nanos", "p999Nanos", "maxNanos"})
+    public LogRecordLatencySnapshot(long count, long meanNanos, long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+        this.count = count;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+}
@@ -0,0 +1,101 @@
+package com.xin.logRecord.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 将LogRecordMetrics绑定到Micrometer，仅在Micrometer位于classpath时注册
+ */
+public class LogRecordMeterBinder implements MeterBinder {
+    private final LogRecordMetrics logRecordMetrics;
+
+    public LogRecordMeterBinder(LogRecordMetrics logRecordMetrics) {
+        this.logRecordMetrics = logRecordMetrics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (LogRecordStage stage : LogRecordStage.values()) {
+            LogRecordLatencyHistogram histogram = logRecordMetrics.getStageHistogram(stage);
+            String stageName = stage.name().toLowerCase();
+            FunctionTimer.builder("log.record.stage", histogram, LogRecordLatencyHistogram::getCount,
+                            LogRecordLatencyHistogram::getTotalNanos, TimeUnit.NANOSECONDS)
+                    .tag("stage", stageName)
+                    .register(registry);
+            Gauge.builder("log.record.stage.p99", histogram, h -> h.getValueAtQuantile(0.99) / 1_000_000.0)
+                    .tag("stage", stageName)
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            Gauge.builder("log.record.stage.max", histogram, h -> h.getMaxNanos() / 1_000_000.0)
+                    .tag("stage", stageName)
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        }
+        Gauge.builder("log.record.queue.depth", logRecordMetrics, LogRecordMetrics::getQueueDepth)
+                .register(registry);
+        for (int i = 0, lanes = logRecordMetrics.getLaneCount(); i < lanes; i++) {
+            int lane = i;
+            Gauge.builder("log.record.lane.queue.depth", logRecordMetrics, m -> m.getLaneQueueDepth(lane))
+                    .tag("lane", String.valueOf(lane))
+                    .register(registry);
+        }
+        for (String outcome : logRecordMetrics.getOverflowCounts().keySet()) {
+            FunctionCounter.builder("log.record.overflow", logRecordMetrics, m -> m.getOverflowCount(outcome))
+                    .tag("outcome", outcome)
+                    .register(registry);
+        }
+        FunctionCounter.builder("log.record.dispatched", logRecordMetrics, LogRecordMetrics::getDispatchedCount)
+                .register(registry);
+        FunctionCounter.builder("log.record.rejected", logRecordMetrics, LogRecordMetrics::getRejectedCount)
+                .register(registry);
+        FunctionCounter.builder("log.record.dropped", logRecordMetrics, LogRecordMetrics::getDroppedCount)
+                .register(registry);
+        FunctionCounter.builder("log.record.sink.failures", logRecordMetrics, LogRecordMetrics::getSinkFailureCount)
+                .register(registry);
+        FunctionCounter.builder("log.record.sampled.out", logRecordMetrics, LogRecordMetrics::getSampledOutCount)
+                .register(registry);
+        FunctionCounter.builder("log.record.throttled", logRecordMetrics, LogRecordMetrics::getThrottledCount)
+                .register(registry);
+        logRecordMetrics.addBizTypeListener(bizType ->
+                FunctionCounter.builder("log.record.biz.type", logRecordMetrics, m -> m.getBizTypeCount(bizType))
+                        .tag("bizType", bizType)
+                        .register(registry));
+        logRecordMetrics.addSinkListener(sink -> {
+            LogRecordLatencyHistogram histogram = logRecordMetrics.getSinkHistogram(sink);
+            FunctionTimer.builder("log.record.sink.latency", histogram, LogRecordLatencyHistogram::getCount,
+                            LogRecordLatencyHistogram::getTotalNanos, TimeUnit.NANOSECONDS)
+                    .tag("sink", sink)
+                    .register(registry);
+            Gauge.builder("log.record.sink.latency.p99", histogram, h -> h.getValueAtQuantile(0.99) / 1_000_000.0)
+                    .tag("sink", sink)
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            Gauge.builder("log.record.sink.queue.depth", logRecordMetrics, m -> sinkValue(m, sink, LogRecordSinkSnapshot::getQueueSize))
+                    .tag("sink", sink)
+                    .register(registry);
+            FunctionCounter.builder("log.record.sink.written", logRecordMetrics, m -> sinkValue(m, sink, LogRecordSinkSnapshot::getWrittenCount))
+                    .tag("sink", sink)
+                    .register(registry);
+            FunctionCounter.builder("log.record.sink.dropped", logRecordMetrics, m -> sinkValue(m, sink, LogRecordSinkSnapshot::getDroppedCount))
+                    .tag("sink", sink)
+                    .register(registry);
+            FunctionCounter.builder("log.record.sink.failed", logRecordMetrics, m -> sinkValue(m, sink, LogRecordSinkSnapshot::getFailureCount))
+                    .tag("sink", sink)
+                    .register(registry);
+            FunctionCounter.builder("log.record.sink.shed", logRecordMetrics, m -> sinkValue(m, sink, LogRecordSinkSnapshot::getShedCount))
+                    .tag("sink", sink)
+                    .register(registry);
+        });
+    }
+
+    private static double sinkValue(LogRecordMetrics logRecordMetrics, String sink, ToDoubleFunction<LogRecordSinkSnapshot> value) {
+        LogRecordSinkSnapshot snapshot = logRecordMetrics.getSinkSnapshot(sink);
+        return snapshot == null ? 0 : value.applyAsDouble(snapshot);
+    }
+}
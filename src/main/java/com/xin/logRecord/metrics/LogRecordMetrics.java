@@ -0,0 +1,348 @@
+package com.xin.logRecord.metrics;
+
+import com.xin.logRecord.configuration.LogRecordProperties;
+import com.xin.logRecord.dispatch.LogRecordDispatcher;
+import com.xin.logRecord.parse.LogRecordExpressionCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 日志记录流程的耗时与吞吐指标：各阶段耗时直方图、队列深度、拒绝/丢弃次数以及按bizType统计的记录数
+ */
+@Slf4j
+@Component
+public class LogRecordMetrics implements LogRecordMetricsMXBean {
+    private static final String OBJECT_NAME = "com.xin.logRecord:type=LogRecordMetrics";
+
+    // bizType数量上限，超出后统一计入OTHER_BIZ_TYPE，避免bizType为动态值时无限增长
+    private static final int MAX_BIZ_TYPES = 1000;
+
+    private static final String OTHER_BIZ_TYPE = "_other";
+
+    private final boolean enabled;
+
+    private final boolean jmxEnabled;
+
+    private final ObjectProvider<LogRecordDispatcher> logRecordDispatcher;
+
+    // 未由Spring创建时为null，表达式缓存指标为0
+    private final ObjectProvider<LogRecordExpressionCache> logRecordExpressionCache;
+
+    private final Map<LogRecordStage, LogRecordLatencyHistogram> stageHistograms = new EnumMap<>(LogRecordStage.class);
+
+    private final LongAdder dispatchedCount = new LongAdder();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    private final LongAdder sinkFailureCount = new LongAdder();
+
+    private final LongAdder sampledOutCount = new LongAdder();
+
+    private final LongAdder throttledCount = new LongAdder();
+
+    private final Map<String, LongAdder> bizTypeCounts = new ConcurrentHashMap<>();
+
+    private final List<Consumer<String>> bizTypeListeners = new CopyOnWriteArrayList<>();
+
+    // 扇出模式下各日志记录服务的快照
+    private final Map<String, Supplier<LogRecordSinkSnapshot>> sinkSnapshots = new ConcurrentHashMap<>();
+
+    // 扇出模式下各日志记录服务单次调用的耗时
+    private final Map<String, LogRecordLatencyHistogram> sinkHistograms = new ConcurrentHashMap<>();
+
+    private final List<Consumer<String>> sinkListeners = new CopyOnWriteArrayList<>();
+
+    public LogRecordMetrics(LogRecordProperties logRecordProperties, ObjectProvider<LogRecordDispatcher> logRecordDispatcher) {
+        this(logRecordProperties, logRecordDispatcher, null);
+    }
+
+    @Autowired
+    public LogRecordMetrics(LogRecordProperties logRecordProperties, ObjectProvider<LogRecordDispatcher> logRecordDispatcher,
+                            ObjectProvider<LogRecordExpressionCache> logRecordExpressionCache) {
+        this.logRecordExpressionCache = logRecordExpressionCache;
+        this.enabled = logRecordProperties.getMetrics().isEnabled();
+        this.jmxEnabled = logRecordProperties.getMetrics().isJmxEnabled();
+        this.logRecordDispatcher = logRecordDispatcher;
+        for (LogRecordStage stage : LogRecordStage.values()) {
+            stageHistograms.put(stage, new LogRecordLatencyHistogram());
+        }
+    }
+
+    @PostConstruct
+    public void registerMBean() {
+        if (!enabled || !jmxEnabled) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (Exception e) {
+            log.warn("LogRecordMetrics register MBean error", e);
+        }
+    }
+
+    @PreDestroy
+    public void unregisterMBean() {
+        if (!enabled || !jmxEnabled) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (Exception e) {
+            log.warn("LogRecordMetrics unregister MBean error", e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 未开启指标时返回0，调用方据此跳过耗时统计
+     */
+    public long startTime() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void recordStage(LogRecordStage stage, long startNanos) {
+        if (enabled) {
+            stageHistograms.get(stage).record(System.nanoTime() - startNanos);
+        }
+    }
+
+    public void recordStageNanos(LogRecordStage stage, long nanos) {
+        if (enabled) {
+            stageHistograms.get(stage).record(nanos);
+        }
+    }
+
+    public void recordDispatched(String bizType) {
+        if (!enabled) {
+            return;
+        }
+        dispatchedCount.increment();
+        String key = bizType == null ? "" : bizType;
+        LongAdder counter = bizTypeCounts.get(key);
+        if (counter == null) {
+            if (bizTypeCounts.size() >= MAX_BIZ_TYPES) {
+                key = OTHER_BIZ_TYPE;
+            }
+            counter = bizTypeCounts.computeIfAbsent(key, this::newBizTypeCounter);
+        }
+        counter.increment();
+    }
+
+    // 未能进入队列、改由调用线程或其他方式写入的记录
+    public void recordRejected() {
+        if (enabled) {
+            rejectedCount.increment();
+        }
+    }
+
+    // 被丢弃的记录
+    public void recordDropped() {
+        if (enabled) {
+            droppedCount.increment();
+        }
+    }
+
+    public void recordDropped(int count) {
+        if (enabled) {
+            droppedCount.add(count);
+        }
+    }
+
+    public void recordSinkFailure() {
+        if (enabled) {
+            sinkFailureCount.increment();
+        }
+    }
+
+    // 因采样未被记录的日志
+    public void recordSampledOut() {
+        if (enabled) {
+            sampledOutCount.increment();
+        }
+    }
+
+    // 因限流未被记录的日志
+    public void recordThrottled() {
+        if (enabled) {
+            throttledCount.increment();
+        }
+    }
+
+    /**
+     * bizType首次出现时回调，供Micrometer等外部指标注册按bizType区分的计数器
+     */
+    public void addBizTypeListener(Consumer<String> listener) {
+        bizTypeListeners.add(listener);
+        bizTypeCounts.keySet().forEach(listener);
+    }
+
+    /**
+     * 扇出模式下注册日志记录服务的快照来源
+     */
+    public void registerSink(String name, Supplier<LogRecordSinkSnapshot> snapshot) {
+        sinkSnapshots.put(name, snapshot);
+        sinkListeners.forEach(listener -> listener.accept(name));
+    }
+
+    /**
+     * 日志记录服务注册时回调，供Micrometer等外部指标注册按服务区分的指标
+     */
+    public void addSinkListener(Consumer<String> listener) {
+        sinkListeners.add(listener);
+        sinkSnapshots.keySet().forEach(listener);
+    }
+
+    public LogRecordLatencyHistogram getSinkHistogram(String name) {
+        return sinkHistograms.computeIfAbsent(name, key -> new LogRecordLatencyHistogram());
+    }
+
+    public LogRecordSinkSnapshot getSinkSnapshot(String name) {
+        Supplier<LogRecordSinkSnapshot> snapshot = sinkSnapshots.get(name);
+        return snapshot == null ? null : snapshot.get();
+    }
+
+    public LogRecordLatencyHistogram getStageHistogram(LogRecordStage stage) {
+        return stageHistograms.get(stage);
+    }
+
+    public long getBizTypeCount(String bizType) {
+        LongAdder counter = bizTypeCounts.get(bizType);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    @Override
+    public long getDispatchedCount() {
+        return dispatchedCount.sum();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    @Override
+    public long getSinkFailureCount() {
+        return sinkFailureCount.sum();
+    }
+
+    @Override
+    public long getSampledOutCount() {
+        return sampledOutCount.sum();
+    }
+
+    @Override
+    public long getThrottledCount() {
+        return throttledCount.sum();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        LogRecordDispatcher dispatcher = logRecordDispatcher.getIfAvailable();
+        return dispatcher == null ? 0 : dispatcher.getQueueSize();
+    }
+
+    @Override
+    public int[] getLaneQueueDepths() {
+        LogRecordDispatcher dispatcher = logRecordDispatcher.getIfAvailable();
+        int[] depths = new int[dispatcher == null ? 0 : dispatcher.getLaneCount()];
+        for (int i = 0; i < depths.length; i++) {
+            depths[i] = dispatcher.getLaneQueueSize(i);
+        }
+        return depths;
+    }
+
+    public int getLaneCount() {
+        LogRecordDispatcher dispatcher = logRecordDispatcher.getIfAvailable();
+        return dispatcher == null ? 0 : dispatcher.getLaneCount();
+    }
+
+    public int getLaneQueueDepth(int lane) {
+        LogRecordDispatcher dispatcher = logRecordDispatcher.getIfAvailable();
+        return dispatcher == null || lane >= dispatcher.getLaneCount() ? 0 : dispatcher.getLaneQueueSize(lane);
+    }
+
+    @Override
+    public Map<String, Long> getOverflowCounts() {
+        LogRecordDispatcher dispatcher = logRecordDispatcher.getIfAvailable();
+        return dispatcher == null ? Collections.emptyMap() : dispatcher.getOverflowCounts();
+    }
+
+    public long getOverflowCount(String outcome) {
+        Long count = getOverflowCounts().get(outcome);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public long getExpressionCacheHitCount() {
+        LogRecordExpressionCache cache = logRecordExpressionCache == null ? null : logRecordExpressionCache.getIfAvailable();
+        return cache == null ? 0 : cache.getHitCount();
+    }
+
+    @Override
+    public long getExpressionCacheMissCount() {
+        LogRecordExpressionCache cache = logRecordExpressionCache == null ? null : logRecordExpressionCache.getIfAvailable();
+        return cache == null ? 0 : cache.getMissCount();
+    }
+
+    @Override
+    public Map<String, LogRecordLatencySnapshot> getStageLatencies() {
+        Map<String, LogRecordLatencySnapshot> latencies = new LinkedHashMap<>();
+        stageHistograms.forEach((stage, histogram) -> latencies.put(stage.name(), histogram.snapshot()));
+        return latencies;
+    }
+
+    @Override
+    public Map<String, Long> getBizTypeCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        bizTypeCounts.forEach((bizType, counter) -> counts.put(bizType, counter.sum()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, LogRecordSinkSnapshot> getSinks() {
+        Map<String, LogRecordSinkSnapshot> sinks = new LinkedHashMap<>();
+        sinkSnapshots.forEach((name, snapshot) -> sinks.put(name, snapshot.get()));
+        return sinks;
+    }
+
+    private LongAdder newBizTypeCounter(String bizType) {
+        bizTypeListeners.forEach(listener -> listener.accept(bizType));
+        return new LongAdder();
+    }
+}
@@ -0,0 +1,45 @@
+package com.xin.logRecord.metrics;
+
+import java.util.Map;
+
+/**
+ * 通过JMX暴露的日志记录指标，注册名为com.xin.logRecord:type=LogRecordMetrics
+ */
+public interface LogRecordMetricsMXBean {
+    long getDispatchedCount();
+
+    long getRejectedCount();
+
+    long getDroppedCount();
+
+    long getSinkFailureCount();
+
+    long getSampledOutCount();
+
+    long getThrottledCount();
+
+    int getQueueDepth();
+
+    /**
+     * STRIPED分发器各通道的队列深度，下标为通道序号，其余分发器为空数组
+     */
+    int[] getLaneQueueDepths();
+
+    /**
+     * RING_BUFFER分发器缓冲区满时各溢出处理结果(dropNewest、dropOldest、blockTimeout、callerRuns)的次数，其余分发器为空
+     */
+    Map<String, Long> getOverflowCounts();
+
+    long getExpressionCacheHitCount();
+
+    long getExpressionCacheMissCount();
+
+    Map<String, LogRecordLatencySnapshot> getStageLatencies();
+
+    Map<String, Long> getBizTypeCounts();
+
+    /**
+     * 扇出模式下各日志记录服务的队列与写入情况
+     */
+    Map<String, LogRecordSinkSnapshot> getSinks();
+}
@@ -0,0 +1,17 @@
+package com.xin.logRecord.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+@ConditionalOnProperty(prefix = "log-record.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class LogRecordMicrometerConfiguration {
+
+    @Bean
+    public LogRecordMeterBinder logRecordMeterBinder(LogRecordMetrics logRecordMetrics) {
+        return new LogRecordMeterBinder(logRecordMetrics);
+    }
+}
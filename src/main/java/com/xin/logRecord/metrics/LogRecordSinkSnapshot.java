@@ -0,0 +1,41 @@
+package com.xin.logRecord.metrics;
+
+import lombok.Getter;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * 扇出模式下单个日志记录服务的队列与写入情况快照
+ */
+@Getter
+public class LogRecordSinkSnapshot {
+    private final int queueSize;
+
+    private final long enqueuedCount;
+
+    private final long writtenCount;
+
+    private final long droppedCount;
+
+    private final long failureCount;
+
+    private final long shedCount;
+
+    private final String circuitState;
+
+    // 单次调用该服务的耗时
+    private final LogRecordLatencySnapshot latency;
+
+    @ConstructorProperties({"queueSize", "enqueuedCount", "writtenCount", "droppedCount", "failureCount", "shedCount", "circuitState", "latency"})
+    public LogRecordSinkSnapshot(int queueSize, long enqueuedCount, long writtenCount, long droppedCount, long failureCount, long shedCount,
+                                 String circuitState, LogRecordLatencySnapshot latency) {
+        this.queueSize = queueSize;
+        this.enqueuedCount = enqueuedCount;
+        this.writtenCount = writtenCount;
+        this.droppedCount = droppedCount;
+        this.failureCount = failureCount;
+        this.shedCount = shedCount;
+        this.circuitState = circuitState;
+        this.latency = latency;
+    }
+}
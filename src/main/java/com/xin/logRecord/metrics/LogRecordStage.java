@@ -0,0 +1,19 @@
+package com.xin.logRecord.metrics;
+
+/**
+ * 日志记录流程中被统计耗时的阶段
+ */
+public enum LogRecordStage {
+    // 方法执行前的SpEL解析
+    PRE_PARSE,
+    // 方法执行后的SpEL解析
+    POST_PARSE,
+    // success/fail模板解析
+    TEMPLATE,
+    // LogRecordPostProcessor后置处理
+    POST_PROCESSOR,
+    // 记录从分发到开始写入日志记录服务的等待时间
+    QUEUE_WAIT,
+    // 单次调用日志记录服务的耗时
+    SINK
+}
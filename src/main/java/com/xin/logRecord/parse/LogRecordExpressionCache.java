@@ -0,0 +1,92 @@
+package com.xin.logRecord.parse;
+
+import com.xin.logRecord.configuration.LogRecordProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 解析注解中的SpEL表达式，相同的表达式文本只解析一次
+ * 只在构建LogRecordOperation与启动校验时调用，方法执行时直接使用LogRecordOperation中保存的表达式
+ */
+@Slf4j
+@Component
+public class LogRecordExpressionCache {
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final Map<String, Expression> expressionMap = new ConcurrentHashMap<>(256);
+
+    private final SpelExpressionParser parser;
+
+    /**
+     * 是否将字面量与#变量.属性路径的拼接编译为LogRecordSimpleTemplate
+     */
+    private final boolean simpleTemplateEnabled;
+
+    /**
+     * 未由Spring创建时(如单独使用解析器)不开启SpEL编译
+     */
+    public LogRecordExpressionCache() {
+        this(SpelCompilerMode.OFF, true);
+    }
+
+    @Autowired
+    public LogRecordExpressionCache(LogRecordProperties logRecordProperties) {
+        this(logRecordProperties.getSpelCompilerMode(), logRecordProperties.isSimpleTemplateEnabled());
+        log.info("LogRecordExpressionCache init spelCompilerMode [{}] simpleTemplateEnabled [{}]",
+                logRecordProperties.getSpelCompilerMode(), simpleTemplateEnabled);
+    }
+
+    private LogRecordExpressionCache(SpelCompilerMode compilerMode, boolean simpleTemplateEnabled) {
+        this.parser = new SpelExpressionParser(new SpelParserConfiguration(compilerMode, ClassUtils.getDefaultClassLoader()));
+        this.simpleTemplateEnabled = simpleTemplateEnabled;
+    }
+
+    /**
+     * 获取表达式文本对应的表达式，不存在时解析并放入缓存，解析失败时抛出ParseException
+     */
+    public Expression getExpression(String expressionString) {
+        Expression expression = expressionMap.get(expressionString);
+        if (expression != null) {
+            hitCount.increment();
+            return expression;
+        }
+        missCount.increment();
+        return expressionMap.computeIfAbsent(expressionString, this::parseExpression);
+    }
+
+    // 简单模板绕过SpEL执行，其余表达式及简单模板中的特殊情况仍由SpEL执行
+    private Expression parseExpression(String expressionString) {
+        Expression expression = parser.parseExpression(expressionString);
+        if (simpleTemplateEnabled) {
+            Expression simpleTemplate = LogRecordSimpleTemplate.compile(expressionString, expression);
+            if (simpleTemplate != null) {
+                return simpleTemplate;
+            }
+        }
+        return expression;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public int size() {
+        return expressionMap.size();
+    }
+}
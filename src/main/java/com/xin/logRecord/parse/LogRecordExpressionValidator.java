@@ -0,0 +1,121 @@
+package com.xin.logRecord.parse;
+
+import com.xin.logRecord.annotation.LogRecord;
+import com.xin.logRecord.configuration.LogRecordProperties;
+import com.xin.logRecord.constant.ValidationMode;
+import com.xin.logRecord.function.LogRecordFunctionRegister;
+import com.xin.logRecord.index.LogRecordIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 启动时预解析全部@LogRecord表达式，同时检查引用的自定义函数是否存在；
+ * 开启索引且存在索引时方法来自编译期索引，否则使用LogRecordFunctionRegister扫描bean时收集的方法
+ */
+@Slf4j
+@Component
+public class LogRecordExpressionValidator implements SmartInitializingSingleton {
+    private static final Pattern FUNCTION_PATTERN = Pattern.compile("#([A-Za-z_$][\\w$]*)\\s*\\(");
+
+    private static final Pattern LITERAL_PATTERN = Pattern.compile("'(?:[^']|'')*'|\"(?:[^\"]|\"\")*\"");
+
+    private final LogRecordProperties logRecordProperties;
+
+    private final LogRecordExpressionCache logRecordExpressionCache;
+
+    public LogRecordExpressionValidator(LogRecordProperties logRecordProperties, LogRecordExpressionCache logRecordExpressionCache) {
+        this.logRecordProperties = logRecordProperties;
+        this.logRecordExpressionCache = logRecordExpressionCache;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        ValidationMode mode = logRecordProperties.getValidation();
+        if (mode == ValidationMode.NONE) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Set<Method> methods = findMethods();
+        List<String> errors = new ArrayList<>();
+        int expressionCount = 0;
+        for (Method method : methods) {
+            for (LogRecord logRecord : method.getAnnotationsByType(LogRecord.class)) {
+                expressionCount += validate(method, "success", logRecord.success(), errors);
+                expressionCount += validate(method, "fail", logRecord.fail(), errors);
+                expressionCount += validate(method, "bizId", logRecord.bizId(), errors);
+                expressionCount += validate(method, "bizType", logRecord.bizType(), errors);
+                expressionCount += validate(method, "operatorId", logRecord.operatorId(), errors);
+                expressionCount += validate(method, "condition", logRecord.condition(), errors);
+                expressionCount += validate(method, "extra", logRecord.extra(), errors);
+            }
+        }
+        log.info("LogRecordExpressionValidator validated [{}] expressions on [{}] methods in [{}]ms, [{}] invalid",
+                expressionCount, methods.size(), System.currentTimeMillis() - start, errors.size());
+        if (errors.isEmpty()) {
+            return;
+        }
+        if (mode == ValidationMode.FAIL_FAST) {
+            throw new IllegalStateException("Invalid @LogRecord expressions:\n" + String.join("\n", errors));
+        }
+        errors.forEach(error -> log.error("LogRecordExpressionValidator invalid expression {}", error));
+    }
+
+    /**
+     * 解析表达式并放入缓存，之后构建LogRecordOperation时直接复用，返回解析的表达式数量
+     */
+    private int validate(Method method, String attribute, String expression, List<String> errors) {
+        if (!StringUtils.hasText(expression)) {
+            return 0;
+        }
+        String location = method.getDeclaringClass().getName() + "#" + method.getName() + " " + attribute + "=[" + expression + "]";
+        try {
+            logRecordExpressionCache.getExpression(expression);
+        } catch (RuntimeException e) {
+            errors.add(location + ": " + e.getMessage());
+            return 1;
+        }
+        Matcher matcher = FUNCTION_PATTERN.matcher(LITERAL_PATTERN.matcher(expression).replaceAll("''"));
+        while (matcher.find()) {
+            if (LogRecordFunctionRegister.getFunction(matcher.group(1)) == null) {
+                errors.add(location + ": unknown function [" + matcher.group(1) + "]");
+            }
+        }
+        return 1;
+    }
+
+    private Set<Method> findMethods() {
+        Set<Method> methods = new LinkedHashSet<>();
+        if (logRecordProperties.getIndex().isEnabled()) {
+            try {
+                LogRecordIndex index = LogRecordIndex.load(ClassUtils.getDefaultClassLoader());
+                if (index != null) {
+                    for (LogRecordIndex.Entry entry : index.getMethods()) {
+                        try {
+                            methods.add(entry.resolve(ClassUtils.getDefaultClassLoader()));
+                        } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+                            log.warn("LogRecordExpressionValidator resolve indexed method [{}] error", entry);
+                        }
+                    }
+                    return methods;
+                }
+            } catch (IOException e) {
+                log.warn("LogRecordExpressionValidator load index error, fall back to scanning beans", e);
+            }
+        }
+        // 未使用索引时直接复用LogRecordFunctionRegister扫描bean时收集的方法
+        methods.addAll(LogRecordFunctionRegister.getLogRecordMethods());
+        return methods;
+    }
+}
@@ -0,0 +1,415 @@
+package com.xin.logRecord.parse;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.EvaluationException;
+import org.springframework.expression.Expression;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.common.ExpressionUtils;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 只由字符串字面量和#变量.属性路径通过+拼接而成的模板，如 '用户'+#user.name+'修改了订单'+#order.id
+ * 解析为字面量片段与缓存了MethodHandle的属性访问链，绕过SpEL的AST解释执行；
+ * 属性为null、目标为Map、无getter等与SpEL行为可能不一致的情况交由原SpEL表达式执行
+ */
+public final class LogRecordSimpleTemplate implements Expression {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    // 需交由SpEL执行的标记
+    private static final Object FALLBACK = new Object();
+
+    private static final ThreadLocal<StringBuilder> builderCache = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    private final String expressionString;
+
+    private final Segment[] segments;
+
+    private final Expression fallback;
+
+    private LogRecordSimpleTemplate(String expressionString, Segment[] segments, Expression fallback) {
+        this.expressionString = expressionString;
+        this.segments = segments;
+        this.fallback = fallback;
+    }
+
+    /**
+     * 表达式不属于简单模板时返回null
+     *
+     * @param fallback 同一表达式解析出的SpEL表达式
+     */
+    public static Expression compile(String expressionString, Expression fallback) {
+        List<Segment> segments = new ArrayList<>();
+        int length = expressionString.length();
+        int i = skipWhitespace(expressionString, 0);
+        while (true) {
+            if (i >= length) {
+                return null;
+            }
+            char c = expressionString.charAt(i);
+            if (c == '\'' || c == '"') {
+                StringBuilder literal = new StringBuilder();
+                i++;
+                while (true) {
+                    if (i >= length) {
+                        return null;
+                    }
+                    char current = expressionString.charAt(i);
+                    if (current == c) {
+                        // 连续两个引号表示引号本身
+                        if (i + 1 < length && expressionString.charAt(i + 1) == c) {
+                            literal.append(c);
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    literal.append(current);
+                    i++;
+                }
+                segments.add(new Literal(literal.toString()));
+            } else if (c == '#') {
+                List<String> names = new ArrayList<>();
+                i++;
+                while (true) {
+                    int start = i;
+                    if (i >= length || !Character.isJavaIdentifierStart(expressionString.charAt(i))) {
+                        return null;
+                    }
+                    while (i < length && Character.isJavaIdentifierPart(expressionString.charAt(i))) {
+                        i++;
+                    }
+                    names.add(expressionString.substring(start, i));
+                    if (i < length && expressionString.charAt(i) == '.') {
+                        i++;
+                        continue;
+                    }
+                    break;
+                }
+                String variable = names.get(0);
+                if ("root".equals(variable) || "this".equals(variable)) {
+                    return null;
+                }
+                PropertyAccess[] properties = new PropertyAccess[names.size() - 1];
+                for (int j = 0; j < properties.length; j++) {
+                    properties[j] = new PropertyAccess(names.get(j + 1));
+                }
+                segments.add(new VariablePath(variable, properties));
+            } else {
+                return null;
+            }
+            i = skipWhitespace(expressionString, i);
+            if (i >= length) {
+                break;
+            }
+            if (expressionString.charAt(i) != '+') {
+                return null;
+            }
+            i = skipWhitespace(expressionString, i + 1);
+        }
+        return new LogRecordSimpleTemplate(expressionString, segments.toArray(new Segment[0]), fallback);
+    }
+
+    private static int skipWhitespace(String expressionString, int i) {
+        while (i < expressionString.length() && Character.isWhitespace(expressionString.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private Object evaluate(EvaluationContext context) {
+        if (segments.length == 1) {
+            return segments[0].value(context);
+        }
+        Object first = segments[0].value(context);
+        if (first == FALLBACK) {
+            return FALLBACK;
+        }
+        Object second = segments[1].value(context);
+        if (second == FALLBACK) {
+            return FALLBACK;
+        }
+        // 前两项都不是字符串时SpEL的+为数值相加或运算符重载
+        if (!(first instanceof String) && !(second instanceof String)) {
+            return FALLBACK;
+        }
+        StringBuilder builder = builderCache.get();
+        builder.setLength(0);
+        builder.append(toString(first, context)).append(toString(second, context));
+        for (int i = 2; i < segments.length; i++) {
+            Object value = segments[i].value(context);
+            if (value == FALLBACK) {
+                return FALLBACK;
+            }
+            builder.append(toString(value, context));
+        }
+        return builder.toString();
+    }
+
+    // 与SpEL拼接时的转换一致：经TypeConverter转换，null转为"null"
+    private static String toString(Object value, EvaluationContext context) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value == null) {
+            return "null";
+        }
+        return String.valueOf(context.getTypeConverter().convertValue(value, TypeDescriptor.forObject(value), TypeDescriptor.valueOf(String.class)));
+    }
+
+    @Override
+    public String getExpressionString() {
+        return this.expressionString;
+    }
+
+    @Override
+    public Object getValue(EvaluationContext context) throws EvaluationException {
+        Object value = evaluate(context);
+        return value == FALLBACK ? fallback.getValue(context) : value;
+    }
+
+    @Override
+    public Object getValue(EvaluationContext context, Object rootObject) throws EvaluationException {
+        Object value = evaluate(context);
+        return value == FALLBACK ? fallback.getValue(context, rootObject) : value;
+    }
+
+    @Override
+    public <T> T getValue(EvaluationContext context, Class<T> desiredResultType) throws EvaluationException {
+        Object value = evaluate(context);
+        if (value == FALLBACK) {
+            return fallback.getValue(context, desiredResultType);
+        }
+        return ExpressionUtils.convertTypedValue(context, new TypedValue(value), desiredResultType);
+    }
+
+    @Override
+    public <T> T getValue(EvaluationContext context, Object rootObject, Class<T> desiredResultType) throws EvaluationException {
+        Object value = evaluate(context);
+        if (value == FALLBACK) {
+            return fallback.getValue(context, rootObject, desiredResultType);
+        }
+        return ExpressionUtils.convertTypedValue(context, new TypedValue(value), desiredResultType);
+    }
+
+    // 以下没有EvaluationContext或非求值的方法均交由SpEL表达式处理
+
+    @Override
+    public Object getValue() throws EvaluationException {
+        return fallback.getValue();
+    }
+
+    @Override
+    public <T> T getValue(Class<T> desiredResultType) throws EvaluationException {
+        return fallback.getValue(desiredResultType);
+    }
+
+    @Override
+    public Object getValue(Object rootObject) throws EvaluationException {
+        return fallback.getValue(rootObject);
+    }
+
+    @Override
+    public <T> T getValue(Object rootObject, Class<T> desiredResultType) throws EvaluationException {
+        return fallback.getValue(rootObject, desiredResultType);
+    }
+
+    @Override
+    public Class<?> getValueType() throws EvaluationException {
+        return fallback.getValueType();
+    }
+
+    @Override
+    public Class<?> getValueType(Object rootObject) throws EvaluationException {
+        return fallback.getValueType(rootObject);
+    }
+
+    @Override
+    public Class<?> getValueType(EvaluationContext context) throws EvaluationException {
+        return fallback.getValueType(context);
+    }
+
+    @Override
+    public Class<?> getValueType(EvaluationContext context, Object rootObject) throws EvaluationException {
+        return fallback.getValueType(context, rootObject);
+    }
+
+    @Override
+    public TypeDescriptor getValueTypeDescriptor() throws EvaluationException {
+        return fallback.getValueTypeDescriptor();
+    }
+
+    @Override
+    public TypeDescriptor getValueTypeDescriptor(Object rootObject) throws EvaluationException {
+        return fallback.getValueTypeDescriptor(rootObject);
+    }
+
+    @Override
+    public TypeDescriptor getValueTypeDescriptor(EvaluationContext context) throws EvaluationException {
+        return fallback.getValueTypeDescriptor(context);
+    }
+
+    @Override
+    public TypeDescriptor getValueTypeDescriptor(EvaluationContext context, Object rootObject) throws EvaluationException {
+        return fallback.getValueTypeDescriptor(context, rootObject);
+    }
+
+    @Override
+    public boolean isWritable(Object rootObject) throws EvaluationException {
+        return fallback.isWritable(rootObject);
+    }
+
+    @Override
+    public boolean isWritable(EvaluationContext context) throws EvaluationException {
+        return fallback.isWritable(context);
+    }
+
+    @Override
+    public boolean isWritable(EvaluationContext context, Object rootObject) throws EvaluationException {
+        return fallback.isWritable(context, rootObject);
+    }
+
+    @Override
+    public void setValue(Object rootObject, Object value) throws EvaluationException {
+        fallback.setValue(rootObject, value);
+    }
+
+    @Override
+    public void setValue(EvaluationContext context, Object value) throws EvaluationException {
+        fallback.setValue(context, value);
+    }
+
+    @Override
+    public void setValue(EvaluationContext context, Object rootObject, Object value) throws EvaluationException {
+        fallback.setValue(context, rootObject, value);
+    }
+
+    @Override
+    public String toString() {
+        return this.expressionString;
+    }
+
+    private interface Segment {
+        Object value(EvaluationContext context);
+    }
+
+    private static final class Literal implements Segment {
+        private final String value;
+
+        private Literal(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object value(EvaluationContext context) {
+            return value;
+        }
+    }
+
+    private static final class VariablePath implements Segment {
+        private final String variable;
+
+        private final PropertyAccess[] properties;
+
+        private VariablePath(String variable, PropertyAccess[] properties) {
+            this.variable = variable;
+            this.properties = properties;
+        }
+
+        @Override
+        public Object value(EvaluationContext context) {
+            Object value = context.lookupVariable(variable);
+            for (PropertyAccess property : properties) {
+                if (value == null) {
+                    return FALLBACK;
+                }
+                value = property.read(value);
+                if (value == FALLBACK) {
+                    return FALLBACK;
+                }
+            }
+            return value;
+        }
+    }
+
+    /**
+     * 单个属性的访问，按目标类缓存getter(或public字段)的MethodHandle，目标类变化时重新查找
+     */
+    private static final class PropertyAccess {
+        private final String name;
+
+        private volatile CachedGetter cachedGetter;
+
+        private PropertyAccess(String name) {
+            this.name = name;
+        }
+
+        private Object read(Object target) {
+            Class<?> type = target.getClass();
+            CachedGetter getter = this.cachedGetter;
+            if (getter == null || getter.type != type) {
+                getter = new CachedGetter(type, findGetter(type, name));
+                this.cachedGetter = getter;
+            }
+            if (getter.handle == null) {
+                return FALLBACK;
+            }
+            try {
+                return getter.handle.invokeExact(target);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                // getter已经执行过，不再交由SpEL重复执行，按SpEL读取属性失败的方式抛出
+                throw new SpelEvaluationException(e, SpelMessage.EXCEPTION_DURING_PROPERTY_READ, name, e.getMessage());
+            }
+        }
+
+        private static MethodHandle findGetter(Class<?> type, String name) {
+            if (Map.class.isAssignableFrom(type) || type.isArray()) {
+                return null;
+            }
+            try {
+                PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, name);
+                Method readMethod = descriptor == null ? null : descriptor.getReadMethod();
+                if (readMethod != null) {
+                    ReflectionUtils.makeAccessible(readMethod);
+                    return MethodHandles.lookup().unreflect(readMethod).asType(GETTER_TYPE);
+                }
+                Field field = ReflectionUtils.findField(type, name);
+                if (field != null && Modifier.isPublic(field.getModifiers()) && !Modifier.isStatic(field.getModifiers())) {
+                    ReflectionUtils.makeAccessible(field);
+                    return MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+                }
+            } catch (IllegalAccessException | RuntimeException e) {
+                return null;
+            }
+            return null;
+        }
+    }
+
+    private static final class CachedGetter {
+        private final Class<?> type;
+
+        private final MethodHandle handle;
+
+        private CachedGetter(Class<?> type, MethodHandle handle) {
+            this.type = type;
+            this.handle = handle;
+        }
+    }
+}
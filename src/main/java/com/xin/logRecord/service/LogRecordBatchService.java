@@ -0,0 +1,13 @@
+package com.xin.logRecord.service;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+
+import java.util.List;
+
+/**
+ * 批量日志记录，适用于数据库、消息队列等一次调用可写入多条记录的场景
+ * 传入的列表可能被分发器复用，仅在本次调用期间有效，如需异步处理请自行拷贝
+ */
+public interface LogRecordBatchService {
+    void record(List<LogRecordDTO> logRecordDTOs);
+}
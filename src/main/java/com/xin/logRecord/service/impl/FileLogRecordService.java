@@ -0,0 +1,298 @@
+package com.xin.logRecord.service.impl;
+
+import com.alibaba.fastjson.JSON;
+import com.xin.logRecord.beans.LogRecordBinaryCodec;
+import com.xin.logRecord.beans.LogRecordDTO;
+import com.xin.logRecord.configuration.LogRecordProperties;
+import com.xin.logRecord.constant.FileFormat;
+import com.xin.logRecord.constant.FsyncPolicy;
+import com.xin.logRecord.service.LogRecordBatchService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 将记录写入独立日志文件的日志记录服务，不经过应用的日志框架
+ * 每批记录编码到复用的直接内存缓冲区后通过FileChannel写入；文件按大小或时间滚动，滚动后的文件可异步gzip压缩
+ * BINARY格式的记录首尾相接，可循环调用LogRecordBinaryCodec.decode依次读取
+ */
+@Slf4j
+public class FileLogRecordService implements LogRecordBatchService {
+    private static final DateTimeFormatter ROLL_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final Path dir;
+
+    private final String fileName;
+
+    private final String suffix;
+
+    private final FileFormat format;
+
+    private final FsyncPolicy fsyncPolicy;
+
+    private final long maxFileSize;
+
+    private final long rollIntervalMs;
+
+    private final boolean compress;
+
+    // 压缩滚动后的文件与INTERVAL策略下的定时刷盘
+    private final ScheduledExecutorService backgroundExecutor;
+
+    // 已刷盘的最大批次序号，BATCH策略下序号不大于该值的批次无需再次刷盘
+    private final AtomicLong syncedSequence = new AtomicLong();
+
+    private final Object syncLock = new Object();
+
+    // 写入方状态，由this锁保护
+    private final ByteBuffer buffer;
+
+    private FileChannel channel;
+
+    private long fileSize;
+
+    private long rollAt;
+
+    private long writeSequence;
+
+    private boolean closed;
+
+    public FileLogRecordService(LogRecordProperties.FileSink fileSink) throws IOException {
+        this.dir = Paths.get(fileSink.getDir());
+        this.fileName = fileSink.getFileName();
+        this.format = fileSink.getFormat();
+        this.suffix = format == FileFormat.BINARY ? ".bin" : ".log";
+        this.fsyncPolicy = fileSink.getFsync();
+        this.maxFileSize = fileSink.getMaxFileSize();
+        this.rollIntervalMs = fileSink.getRollIntervalMs();
+        this.compress = fileSink.isCompress();
+        this.buffer = ByteBuffer.allocateDirect(fileSink.getBufferSize());
+        Files.createDirectories(dir);
+        open();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("log-record-file-");
+        threadFactory.setDaemon(true);
+        this.backgroundExecutor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            long interval = fileSink.getFsyncIntervalMs();
+            backgroundExecutor.scheduleWithFixedDelay(this::syncQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        log.info("FileLogRecordService init file [{}] format [{}] fsync [{}]", activeFile(), format, fsyncPolicy);
+    }
+
+    @Override
+    public void record(List<LogRecordDTO> logRecordDTOs) {
+        long sequence;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("FileLogRecordService is closed");
+            }
+            try {
+                if (rollIntervalMs > 0 && System.currentTimeMillis() >= rollAt) {
+                    roll();
+                }
+                for (int i = 0, size = logRecordDTOs.size(); i < size; i++) {
+                    if (fileSize + ((Buffer) buffer).position() >= maxFileSize) {
+                        roll();
+                    }
+                    append(logRecordDTOs.get(i));
+                }
+                // 每批写入后缓冲区即清空，记录至少已进入操作系统的页缓存
+                flush();
+            } catch (IOException e) {
+                ((Buffer) buffer).clear();
+                throw new UncheckedIOException(e);
+            }
+            sequence = ++writeSequence;
+        }
+        if (fsyncPolicy == FsyncPolicy.BATCH) {
+            sync(sequence);
+        }
+    }
+
+    /**
+     * 容器关闭时刷盘并关闭文件，等待尚未完成的压缩任务
+     */
+    public void shutdown() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                flush();
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                log.error("FileLogRecordService close error", e);
+            }
+        }
+        backgroundExecutor.shutdown();
+        try {
+            if (!backgroundExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("FileLogRecordService shutdown timeout, rolled files may be left uncompressed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Path activeFile() {
+        return dir.resolve(fileName + suffix);
+    }
+
+    private void append(LogRecordDTO logRecordDTO) throws IOException {
+        if (format == FileFormat.BINARY) {
+            put(LogRecordBinaryCodec.encode(logRecordDTO));
+        } else {
+            byte[] json = JSON.toJSONBytes(logRecordDTO);
+            put(ByteBuffer.wrap(json));
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) '\n');
+        }
+    }
+
+    private void put(ByteBuffer source) throws IOException {
+        if (source.remaining() > buffer.remaining()) {
+            flush();
+        }
+        // 超过缓冲区大小的记录直接写入
+        if (source.remaining() > buffer.capacity()) {
+            write(source);
+            return;
+        }
+        buffer.put(source);
+    }
+
+    private void flush() throws IOException {
+        ((Buffer) buffer).flip();
+        write(buffer);
+        ((Buffer) buffer).clear();
+    }
+
+    private void write(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            fileSize += channel.write(source);
+        }
+    }
+
+    /**
+     * 刷盘直到包含指定批次，等待期间其他线程写入的批次由同一次force一并刷盘
+     */
+    private void sync(long sequence) {
+        if (syncedSequence.get() >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (syncedSequence.get() >= sequence) {
+                return;
+            }
+            long target;
+            FileChannel current;
+            synchronized (this) {
+                target = writeSequence;
+                current = channel;
+            }
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                // 文件已滚动或关闭，关闭前已刷盘
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            syncedSequence.accumulateAndGet(target, Math::max);
+        }
+    }
+
+    private void syncQuietly() {
+        long sequence;
+        synchronized (this) {
+            sequence = writeSequence;
+        }
+        try {
+            sync(sequence);
+        } catch (RuntimeException e) {
+            log.error("FileLogRecordService fsync error", e);
+        }
+    }
+
+    private void open() throws IOException {
+        this.channel = FileChannel.open(activeFile(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.fileSize = channel.size();
+        this.rollAt = System.currentTimeMillis() + rollIntervalMs;
+    }
+
+    private void roll() throws IOException {
+        flush();
+        if (fileSize == 0) {
+            rollAt = System.currentTimeMillis() + rollIntervalMs;
+            return;
+        }
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            channel.force(false);
+            syncedSequence.accumulateAndGet(writeSequence, Math::max);
+        }
+        channel.close();
+        Path rolled = rolledFile();
+        Files.move(activeFile(), rolled, StandardCopyOption.ATOMIC_MOVE);
+        open();
+        if (compress) {
+            backgroundExecutor.execute(() -> compress(rolled));
+        }
+    }
+
+    private Path rolledFile() {
+        String prefix = fileName + "-" + LocalDateTime.now().format(ROLL_FORMATTER);
+        Path rolled = dir.resolve(prefix + suffix);
+        for (int i = 1; Files.exists(rolled) || Files.exists(dir.resolve(rolled.getFileName() + ".gz")); i++) {
+            rolled = dir.resolve(prefix + "." + i + suffix);
+        }
+        return rolled;
+    }
+
+    private static void compress(Path file) {
+        Path target = file.resolveSibling(file.getFileName() + ".gz");
+        Path temp = file.resolveSibling(file.getFileName() + ".gz.tmp");
+        try (InputStream in = Files.newInputStream(file);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+            byte[] bytes = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(bytes)) != -1) {
+                out.write(bytes, 0, read);
+            }
+        } catch (IOException e) {
+            log.error("FileLogRecordService compress [{}] error", file, e);
+            return;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(file);
+        } catch (IOException e) {
+            log.error("FileLogRecordService compress [{}] error", file, e);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.xin.logRecord.service.impl;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+import com.xin.logRecord.configuration.LogRecordProperties;
+import com.xin.logRecord.constant.JdbcInsertMode;
+import com.xin.logRecord.service.LogRecordBatchService;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 将记录批量写入数据库表的日志记录服务，每次调用在一个事务中写入整批记录
+ * 连接中断、事务回滚等暂时性失败按退避时间重试，其余失败直接抛出由分发器处理；同时占用的连接数由信号量限制
+ */
+@Slf4j
+public class JdbcLogRecordService implements LogRecordBatchService {
+    private static final Pattern TABLE_NAME_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private static final String COLUMNS = "log_id, operate_time, biz_id, biz_type, operator_id, success, template_msg, exception, extra, execution_time";
+
+    private static final int COLUMN_COUNT = 10;
+
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // template_msg、exception、extra列的长度，超出部分在写入前截断，避免单条超长记录导致整批写入失败
+    static final int MAX_TEXT_LENGTH = 2000;
+
+    private final DataSource dataSource;
+
+    private final String tableName;
+
+    private final JdbcInsertMode insertMode;
+
+    private final int batchSize;
+
+    private final Semaphore connectionPermits;
+
+    private final long acquireTimeoutMs;
+
+    private final int maxRetries;
+
+    private final long retryBackoffMs;
+
+    private final long maxRetryBackoffMs;
+
+    // 单行INSERT，BATCH模式使用
+    private final String insertSql;
+
+    // 包含batchSize行的INSERT，MULTI_ROW模式下整批使用
+    private final String multiRowInsertSql;
+
+    public JdbcLogRecordService(DataSource dataSource, LogRecordProperties.Jdbc jdbc) {
+        if (!TABLE_NAME_PATTERN.matcher(jdbc.getTableName()).matches()) {
+            throw new IllegalArgumentException("log-record.jdbc.tableName [" + jdbc.getTableName() + "] is not a valid table name");
+        }
+        this.dataSource = dataSource;
+        this.tableName = jdbc.getTableName();
+        this.insertMode = jdbc.getInsertMode();
+        this.batchSize = Math.max(1, jdbc.getBatchSize());
+        this.connectionPermits = new Semaphore(Math.max(1, jdbc.getMaxConnections()));
+        this.acquireTimeoutMs = jdbc.getAcquireTimeoutMs();
+        this.maxRetries = jdbc.getMaxRetries();
+        this.retryBackoffMs = jdbc.getRetryBackoffMs();
+        this.maxRetryBackoffMs = jdbc.getMaxRetryBackoffMs();
+        this.insertSql = insertSql(1);
+        this.multiRowInsertSql = insertSql(batchSize);
+        if (jdbc.isInitializeSchema()) {
+            initializeSchema();
+        }
+        log.info("JdbcLogRecordService init table [{}] insertMode [{}] batchSize [{}] maxConnections [{}]",
+                tableName, insertMode, batchSize, jdbc.getMaxConnections());
+    }
+
+    @Override
+    public void record(List<LogRecordDTO> logRecordDTOs) {
+        if (logRecordDTOs.isEmpty()) {
+            return;
+        }
+        long backoff = retryBackoffMs;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                write(logRecordDTOs);
+                return;
+            } catch (SQLException e) {
+                if (attempt >= maxRetries || !isTransient(e)) {
+                    throw new IllegalStateException("JdbcLogRecordService record error", e);
+                }
+                log.warn("JdbcLogRecordService record failed, retry [{}] after [{}]ms", attempt + 1, backoff, e);
+                sleep(backoff);
+                backoff = Math.min(backoff * 2, maxRetryBackoffMs);
+            }
+        }
+    }
+
+    private void write(List<LogRecordDTO> logRecordDTOs) throws SQLException {
+        acquire();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                if (insertMode == JdbcInsertMode.MULTI_ROW) {
+                    writeMultiRow(connection, logRecordDTOs);
+                } else {
+                    writeBatch(connection, logRecordDTOs);
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } finally {
+            connectionPermits.release();
+        }
+    }
+
+    private void writeBatch(Connection connection, List<LogRecordDTO> logRecordDTOs) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(insertSql)) {
+            int pending = 0;
+            for (int i = 0, size = logRecordDTOs.size(); i < size; i++) {
+                bind(statement, 0, logRecordDTOs.get(i));
+                statement.addBatch();
+                if (++pending == batchSize) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    private void writeMultiRow(Connection connection, List<LogRecordDTO> logRecordDTOs) throws SQLException {
+        int size = logRecordDTOs.size();
+        int full = size / batchSize * batchSize;
+        if (full > 0) {
+            try (PreparedStatement statement = connection.prepareStatement(multiRowInsertSql)) {
+                for (int start = 0; start < full; start += batchSize) {
+                    for (int row = 0; row < batchSize; row++) {
+                        bind(statement, row * COLUMN_COUNT, logRecordDTOs.get(start + row));
+                    }
+                    statement.executeUpdate();
+                }
+            }
+        }
+        // 不足batchSize的剩余记录使用一条对应行数的INSERT
+        int remaining = size - full;
+        if (remaining > 0) {
+            try (PreparedStatement statement = connection.prepareStatement(insertSql(remaining))) {
+                for (int row = 0; row < remaining; row++) {
+                    bind(statement, row * COLUMN_COUNT, logRecordDTOs.get(full + row));
+                }
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement statement, int offset, LogRecordDTO logRecordDTO) throws SQLException {
+        statement.setString(offset + 1, logRecordDTO.getLogId());
+        if (logRecordDTO.getOperateTime() < 0) {
+            statement.setNull(offset + 2, Types.TIMESTAMP);
+        } else {
+            statement.setTimestamp(offset + 2, new Timestamp(logRecordDTO.getOperateTime()));
+        }
+        statement.setString(offset + 3, logRecordDTO.getBizId());
+        statement.setString(offset + 4, logRecordDTO.getBizType());
+        statement.setString(offset + 5, logRecordDTO.getOperatorId());
+        Boolean success = logRecordDTO.getSuccess();
+        if (success == null) {
+            statement.setNull(offset + 6, Types.BOOLEAN);
+        } else {
+            statement.setBoolean(offset + 6, success);
+        }
+        statement.setString(offset + 7, truncate(logRecordDTO.getTemplateMsg()));
+        statement.setString(offset + 8, truncate(logRecordDTO.getException()));
+        statement.setString(offset + 9, truncate(logRecordDTO.getExtra()));
+        Long executionTime = logRecordDTO.getExecutionTime();
+        if (executionTime == null) {
+            statement.setNull(offset + 10, Types.BIGINT);
+        } else {
+            statement.setLong(offset + 10, executionTime);
+        }
+    }
+
+    private static String truncate(String value) {
+        if (value == null || value.length() <= MAX_TEXT_LENGTH) {
+            return value;
+        }
+        // 不在代理对中间截断
+        int end = Character.isHighSurrogate(value.charAt(MAX_TEXT_LENGTH - 1)) ? MAX_TEXT_LENGTH - 1 : MAX_TEXT_LENGTH;
+        return value.substring(0, end);
+    }
+
+    private String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(64 + rows * (ROW_PLACEHOLDER.length() + 2));
+        sql.append("INSERT INTO ").append(tableName).append(" (").append(COLUMNS).append(") VALUES ");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDER);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * 建表失败(如数据库暂不可用)只记录日志，写入时再暴露问题
+     */
+    private void initializeSchema() {
+        String ddl = "CREATE TABLE IF NOT EXISTS " + tableName + " ("
+                + "log_id VARCHAR(64) NOT NULL, "
+                + "operate_time TIMESTAMP, "
+                + "biz_id VARCHAR(255), "
+                + "biz_type VARCHAR(255), "
+                + "operator_id VARCHAR(255), "
+                + "success BOOLEAN, "
+                + "template_msg VARCHAR(" + MAX_TEXT_LENGTH + "), "
+                + "exception VARCHAR(" + MAX_TEXT_LENGTH + "), "
+                + "extra VARCHAR(" + MAX_TEXT_LENGTH + "), "
+                + "execution_time BIGINT)";
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(ddl);
+        } catch (SQLException e) {
+            log.error("JdbcLogRecordService initialize schema error", e);
+        }
+    }
+
+    private void acquire() {
+        try {
+            if (!connectionPermits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("JdbcLogRecordService acquire connection timeout [" + acquireTimeoutMs + "]ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("JdbcLogRecordService interrupted while acquiring connection", e);
+        }
+    }
+
+    // 连接类(08)与事务回滚类(40，如死锁)的SQLState视为暂时性失败
+    private static boolean isTransient(SQLException e) {
+        if (e instanceof SQLTransientException || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        String sqlState = e.getSQLState();
+        return sqlState != null && (sqlState.startsWith("08") || sqlState.startsWith("40"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("JdbcLogRecordService interrupted while retrying", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.xin.logRecord.service.impl;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+import com.xin.logRecord.service.LogRecordBatchService;
+import com.xin.logRecord.service.LogRecordCustomService;
+import com.xin.logRecord.service.LogRecordService;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 将单条记录的LogRecordService/LogRecordCustomService适配为LogRecordBatchService
+ * 每条记录单独调用，某条记录失败不影响同批次的其他记录；全部调用结束后将失败汇总为一个异常抛出，
+ * 由调用方决定重试(spool)、熔断(扇出)或只记录日志
+ */
+public class LogRecordBatchServiceAdapter implements LogRecordBatchService {
+    private final Consumer<LogRecordDTO> recorder;
+
+    public LogRecordBatchServiceAdapter(LogRecordService logRecordService) {
+        this.recorder = logRecordService::record;
+    }
+
+    public LogRecordBatchServiceAdapter(LogRecordCustomService logRecordCustomService) {
+        this.recorder = logRecordCustomService::record;
+    }
+
+    @Override
+    public void record(List<LogRecordDTO> logRecordDTOs) {
+        IllegalStateException failure = null;
+        int failed = 0;
+        for (int i = 0, size = logRecordDTOs.size(); i < size; i++) {
+            try {
+                recorder.accept(logRecordDTOs.get(i));
+            } catch (Exception e) {
+                failed++;
+                if (failure == null) {
+                    failure = new IllegalStateException("LogRecordBatchServiceAdapter record error", e);
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw new IllegalStateException("LogRecordBatchServiceAdapter [" + failed + "] of [" + logRecordDTOs.size() + "] records failed", failure);
+        }
+    }
+}
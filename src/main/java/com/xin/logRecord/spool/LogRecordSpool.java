@@ -0,0 +1,288 @@
+package com.xin.logRecord.spool;
+
+import com.xin.logRecord.beans.LogRecordBinaryCodec;
+import com.xin.logRecord.beans.LogRecordDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.zip.CRC32;
+
+/**
+ * 基于内存映射分段文件的预写日志(write-ahead spool)
+ * 写入方追加编码后的记录，读取方(单线程)按顺序读取并在处理完成后确认，确认位置保存在checkpoint文件中；
+ * 启动时未确认的分段会被重新读取，因此记录至少被处理一次
+ */
+@Slf4j
+public class LogRecordSpool {
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    private static final String SEGMENT_SUFFIX = ".spool";
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private static final int HEADER = LogRecordSpoolSegment.RECORD_HEADER_SIZE;
+
+    private final Path dir;
+
+    private final int segmentSize;
+
+    private final boolean fsync;
+
+    // 按序号排列的分段，第一个为读取方正在读取的分段，最后一个为写入方正在写入的分段
+    private final Deque<LogRecordSpoolSegment> segments = new ConcurrentLinkedDeque<>();
+
+    private final FileChannel checkpointChannel;
+
+    private final ByteBuffer checkpointBuffer = ByteBuffer.allocate(16);
+
+    // 编码与校验和在写入方各自的线程中计算，不占用锁
+    private static final ThreadLocal<CRC32> writeCrc = ThreadLocal.withInitial(CRC32::new);
+
+    private final CRC32 readCrc = new CRC32();
+
+    // 写入方状态，由锁保护，锁内只做分段滚动与拷贝
+    private LogRecordSpoolSegment writeSegment;
+
+    private ByteBuffer writeView;
+
+    private long nextSequence;
+
+    private boolean closed;
+
+    // 读取方状态，仅由读取线程访问
+    private LogRecordSpoolSegment readSegment;
+
+    private ByteBuffer readView;
+
+    private int readPosition;
+
+    private int pendingPosition;
+
+    private long corruptedCount;
+
+    public LogRecordSpool(Path dir, int segmentSize, boolean fsync) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        Files.createDirectories(dir);
+        this.checkpointChannel = FileChannel.open(dir.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recover();
+        roll();
+        this.readSegment = segments.peekFirst();
+        this.readView = readSegment.newView();
+        this.pendingPosition = readPosition;
+        log.info("LogRecordSpool init dir [{}] segmentSize [{}] pendingSegments [{}]", dir, segmentSize, segments.size() - 1);
+    }
+
+    /**
+     * 追加一条记录，记录过大、spool已关闭或写入失败时返回false
+     * 记录需已完成延迟解析，编码不会执行模板解析与后置处理
+     */
+    public boolean append(LogRecordDTO logRecordDTO) {
+        ByteBuffer record = LogRecordBinaryCodec.encode(logRecordDTO);
+        int length = record.remaining();
+        if (length + HEADER > segmentSize) {
+            return false;
+        }
+        CRC32 crc = writeCrc.get();
+        crc.reset();
+        ((Buffer) record).mark();
+        crc.update(record);
+        ((Buffer) record).reset();
+        int checksum = (int) crc.getValue();
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (writeSegment.getWritePosition() + HEADER + length > writeSegment.capacity()) {
+                    roll();
+                }
+            } catch (IOException e) {
+                log.error("LogRecordSpool roll segment error", e);
+                return false;
+            }
+            writeSegment.append(writeView, record, checksum, fsync);
+        }
+        return true;
+    }
+
+    /**
+     * 由读取线程调用，从上次确认的位置起最多读取max条记录放入batch
+     * 再次调用read前需先调用acknowledge，否则会重新读取同一批记录
+     */
+    public int read(List<LogRecordDTO> batch, int max) {
+        pendingPosition = readPosition;
+        int count = 0;
+        while (count < max) {
+            // 先读sealed再读writePosition，保证读到sealed时writePosition已是最终值
+            boolean sealed = readSegment.isSealed();
+            int limit = readSegment.getWritePosition();
+            int position = pendingPosition;
+            if (position + HEADER <= limit) {
+                int length = readView.getInt(position);
+                if (length > 0 && position + HEADER + length <= limit) {
+                    pendingPosition = position + HEADER + length;
+                    LogRecordDTO logRecordDTO = decode(position, length);
+                    if (logRecordDTO != null) {
+                        batch.add(logRecordDTO);
+                        count++;
+                    }
+                    continue;
+                }
+            }
+            // 当前分段已读完且不会再写入，删除后切换到下一个分段
+            if (sealed && count == 0) {
+                nextReadSegment();
+                continue;
+            }
+            break;
+        }
+        return count;
+    }
+
+    /**
+     * 确认最近一次read返回的记录已处理完成
+     */
+    public void acknowledge() {
+        readPosition = pendingPosition;
+        writeCheckpoint(readSegment.getSequence(), readPosition);
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getCorruptedCount() {
+        return corruptedCount;
+    }
+
+    public synchronized void close() {
+        closed = true;
+        for (LogRecordSpoolSegment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                log.error("LogRecordSpool close segment error", e);
+            }
+        }
+        try {
+            checkpointChannel.close();
+        } catch (IOException e) {
+            log.error("LogRecordSpool close checkpoint error", e);
+        }
+    }
+
+    private LogRecordDTO decode(int position, int length) {
+        ByteBuffer record = readView.duplicate();
+        ((Buffer) record).limit(position + HEADER + length);
+        ((Buffer) record).position(position + HEADER);
+        readCrc.reset();
+        readCrc.update(record);
+        if ((int) readCrc.getValue() != readView.getInt(position + 4)) {
+            corruptedCount++;
+            log.warn("LogRecordSpool skip corrupted record segment [{}] position [{}]", readSegment.getSequence(), position);
+            return null;
+        }
+        ((Buffer) record).position(position + HEADER);
+        try {
+            return LogRecordBinaryCodec.decode(record);
+        } catch (RuntimeException e) {
+            corruptedCount++;
+            log.warn("LogRecordSpool skip undecodable record segment [{}] position [{}]", readSegment.getSequence(), position, e);
+            return null;
+        }
+    }
+
+    private void nextReadSegment() {
+        LogRecordSpoolSegment finished = segments.pollFirst();
+        try {
+            finished.delete();
+        } catch (IOException e) {
+            log.error("LogRecordSpool delete segment error", e);
+        }
+        readSegment = segments.peekFirst();
+        readView = readSegment.newView();
+        readPosition = 0;
+        pendingPosition = 0;
+        writeCheckpoint(readSegment.getSequence(), 0);
+    }
+
+    /**
+     * 新建写入分段，新分段先加入队列再封存旧分段，保证读取方看到封存时下一个分段已存在
+     */
+    private void roll() throws IOException {
+        long sequence = nextSequence++;
+        LogRecordSpoolSegment segment = LogRecordSpoolSegment.create(segmentPath(sequence), sequence, segmentSize);
+        segments.addLast(segment);
+        if (writeSegment != null) {
+            writeSegment.seal();
+        }
+        writeSegment = segment;
+        writeView = segment.newView();
+    }
+
+    private void recover() throws IOException {
+        long checkpointSequence = -1;
+        int checkpointPosition = 0;
+        if (checkpointChannel.size() >= 16) {
+            checkpointChannel.read(checkpointBuffer, 0);
+            ((Buffer) checkpointBuffer).flip();
+            checkpointSequence = checkpointBuffer.getLong();
+            checkpointPosition = (int) checkpointBuffer.getLong();
+        }
+        List<Long> sequences = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                sequences.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        Collections.sort(sequences);
+        for (Long sequence : sequences) {
+            Path path = segmentPath(sequence);
+            nextSequence = sequence + 1;
+            // checkpoint之前的分段已全部确认
+            if (sequence < checkpointSequence) {
+                Files.deleteIfExists(path);
+                continue;
+            }
+            if (segments.isEmpty() && sequence == checkpointSequence) {
+                readPosition = checkpointPosition;
+            }
+            segments.addLast(LogRecordSpoolSegment.open(path, sequence));
+        }
+    }
+
+    private void writeCheckpoint(long sequence, int position) {
+        ((Buffer) checkpointBuffer).clear();
+        checkpointBuffer.putLong(sequence);
+        checkpointBuffer.putLong(position);
+        ((Buffer) checkpointBuffer).flip();
+        try {
+            checkpointChannel.write(checkpointBuffer, 0);
+            if (fsync) {
+                checkpointChannel.force(false);
+            }
+        } catch (IOException e) {
+            log.error("LogRecordSpool write checkpoint error", e);
+        }
+    }
+
+    private Path segmentPath(long sequence) {
+        return dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+    }
+}
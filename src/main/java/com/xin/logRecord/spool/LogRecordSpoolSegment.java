@@ -0,0 +1,103 @@
+package com.xin.logRecord.spool;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 内存映射的spool分段文件
+ * 每条记录的格式为：长度(4字节) + CRC32(4字节) + 编码后的记录，长度最后写入，长度为0表示之后没有数据
+ */
+final class LogRecordSpoolSegment {
+    static final int RECORD_HEADER_SIZE = 8;
+
+    private final long sequence;
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    // 已写入(对读取方可见)的位置，历史分段为整个文件大小
+    private volatile int writePosition;
+
+    // 写入方已切换到新分段，本分段不会再有新数据
+    private volatile boolean sealed;
+
+    private LogRecordSpoolSegment(long sequence, Path path, FileChannel channel, MappedByteBuffer buffer, int writePosition, boolean sealed) {
+        this.sequence = sequence;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.writePosition = writePosition;
+        this.sealed = sealed;
+    }
+
+    static LogRecordSpoolSegment create(Path path, long sequence, int size) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        return new LogRecordSpoolSegment(sequence, path, channel, buffer, 0, false);
+    }
+
+    static LogRecordSpoolSegment open(Path path, long sequence) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int size = (int) channel.size();
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        return new LogRecordSpoolSegment(sequence, path, channel, buffer, size, true);
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    int getWritePosition() {
+        return writePosition;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    void seal() {
+        this.sealed = true;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * 由写入方在持有锁的情况下调用，writeView为写入方独占的缓冲区视图
+     */
+    void append(ByteBuffer writeView, ByteBuffer record, int crc, boolean force) {
+        int position = writePosition;
+        int length = record.remaining();
+        ((Buffer) writeView).position(position + RECORD_HEADER_SIZE);
+        writeView.put(record);
+        writeView.putInt(position + 4, crc);
+        writeView.putInt(position, length);
+        if (force) {
+            buffer.force();
+        }
+        writePosition = position + RECORD_HEADER_SIZE + length;
+    }
+
+    ByteBuffer newView() {
+        return buffer.duplicate();
+    }
+
+    void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,38 @@
+package com.xin.logRecord.store;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * 查询最近记录的actuator端点：/actuator/logrecords?bizId=...
+ * 按bizId、operatorId、bizType的顺序取第一个非空的条件，均为空时返回最近的记录
+ */
+@Endpoint(id = "logrecords")
+public class LogRecordRecentEndpoint {
+    private final LogRecordRecentStore logRecordRecentStore;
+
+    public LogRecordRecentEndpoint(LogRecordRecentStore logRecordRecentStore) {
+        this.logRecordRecentStore = logRecordRecentStore;
+    }
+
+    @ReadOperation
+    public List<LogRecordDTO> query(@Nullable String bizId, @Nullable String operatorId, @Nullable String bizType,
+                                    @Nullable Long sinceMillis, @Nullable Integer limit) {
+        long since = sinceMillis == null ? 0 : sinceMillis;
+        int max = limit == null ? 0 : limit;
+        if (bizId != null) {
+            return logRecordRecentStore.findByBizId(bizId, since, max);
+        }
+        if (operatorId != null) {
+            return logRecordRecentStore.findByOperatorId(operatorId, since, max);
+        }
+        if (bizType != null) {
+            return logRecordRecentStore.findByBizType(bizType, since, max);
+        }
+        return logRecordRecentStore.findRecent(since, max);
+    }
+}
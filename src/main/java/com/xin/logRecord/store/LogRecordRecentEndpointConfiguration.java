@@ -0,0 +1,17 @@
+package com.xin.logRecord.store;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+@ConditionalOnProperty(prefix = "log-record.recent", name = "enabled", havingValue = "true")
+public class LogRecordRecentEndpointConfiguration {
+
+    @Bean
+    public LogRecordRecentEndpoint logRecordRecentEndpoint(LogRecordRecentStore logRecordRecentStore) {
+        return new LogRecordRecentEndpoint(logRecordRecentStore);
+    }
+}
@@ -0,0 +1,305 @@
+package com.xin.logRecord.store;
+
+import com.xin.logRecord.beans.LogRecordBinaryCodec;
+import com.xin.logRecord.beans.LogRecordDTO;
+import com.xin.logRecord.configuration.LogRecordProperties;
+import com.xin.logRecord.service.LogRecordBatchService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 在内存中保留最近记录的有界存储，按条数、保留时间和内存上限淘汰最早的记录
+ * 记录以LogRecordBinaryCodec编码后存放在环形内存区(可位于堆外)，bizId、bizType、operatorId各自维护一条
+ * 由新到旧的链表作为二级索引；查询使用StampedLock乐观读，不阻塞写入，连续校验失败时才短暂加读锁
+ */
+@Slf4j
+public class LogRecordRecentStore implements LogRecordBatchService {
+    private static final long NONE = -1;
+
+    private static final int OPTIMISTIC_ATTEMPTS = 3;
+
+    private final int capacity;
+
+    private final long maxAgeMs;
+
+    private final int defaultLimit;
+
+    private final StampedLock lock = new StampedLock();
+
+    // 环形内存区，记录不跨越末尾
+    private final ByteBuffer arena;
+
+    private final int arenaCapacity;
+
+    // 写入方使用的视图，由写锁保护
+    private final ByteBuffer writeView;
+
+    // 以下数组以 序号 % capacity 为下标
+    private final long[] seqs;
+
+    private final long[] times;
+
+    private final long[] positions;
+
+    private final int[] lengths;
+
+    private final Index bizIdIndex;
+
+    private final Index bizTypeIndex;
+
+    private final Index operatorIdIndex;
+
+    // 写入方状态，由写锁保护，读取方在乐观读中读取
+    private long nextSeq;
+
+    private long tailSeq;
+
+    // 环形内存区的绝对写入位置
+    private long writePosition;
+
+    private long droppedCount;
+
+    public LogRecordRecentStore(LogRecordProperties.Recent recent) {
+        this.capacity = recent.getMaxRecords();
+        this.maxAgeMs = recent.getMaxAgeMs();
+        this.defaultLimit = recent.getDefaultLimit();
+        this.arenaCapacity = recent.getMaxBytes();
+        this.arena = recent.isOffHeap() ? ByteBuffer.allocateDirect(arenaCapacity) : ByteBuffer.allocate(arenaCapacity);
+        this.writeView = arena.duplicate();
+        this.seqs = new long[capacity];
+        Arrays.fill(seqs, NONE);
+        this.times = new long[capacity];
+        this.positions = new long[capacity];
+        this.lengths = new int[capacity];
+        this.bizIdIndex = new Index(capacity);
+        this.bizTypeIndex = new Index(capacity);
+        this.operatorIdIndex = new Index(capacity);
+        log.info("LogRecordRecentStore init maxRecords [{}] maxAgeMs [{}] maxBytes [{}] offHeap [{}]",
+                capacity, maxAgeMs, arenaCapacity, recent.isOffHeap());
+    }
+
+    /**
+     * 保存记录，不向外抛出异常
+     */
+    @Override
+    public void record(List<LogRecordDTO> logRecordDTOs) {
+        for (int i = 0, size = logRecordDTOs.size(); i < size; i++) {
+            LogRecordDTO logRecordDTO = logRecordDTOs.get(i);
+            try {
+                // 在锁外编码，缓冲区为当前线程复用
+                append(logRecordDTO, LogRecordBinaryCodec.encode(logRecordDTO));
+            } catch (RuntimeException e) {
+                log.error("LogRecordRecentStore record error", e);
+            }
+        }
+    }
+
+    /**
+     * 按bizId查询，由新到旧排列
+     *
+     * @param sinceMillis 只返回该时间(epoch毫秒)之后保存的记录，0表示不限制
+     * @param limit       最大记录数，不大于0时使用defaultLimit
+     */
+    public List<LogRecordDTO> findByBizId(String bizId, long sinceMillis, int limit) {
+        return find(bizIdIndex, bizId, sinceMillis, limit);
+    }
+
+    public List<LogRecordDTO> findByBizType(String bizType, long sinceMillis, int limit) {
+        return find(bizTypeIndex, bizType, sinceMillis, limit);
+    }
+
+    public List<LogRecordDTO> findByOperatorId(String operatorId, long sinceMillis, int limit) {
+        return find(operatorIdIndex, operatorId, sinceMillis, limit);
+    }
+
+    /**
+     * 查询最近的记录，由新到旧排列
+     */
+    public List<LogRecordDTO> findRecent(long sinceMillis, int limit) {
+        return find(null, null, sinceMillis, limit);
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return (int) (nextSeq - tailSeq);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 因超过maxBytes而未保存的记录数
+     */
+    public long getDroppedCount() {
+        long stamp = lock.readLock();
+        try {
+            return droppedCount;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void append(LogRecordDTO logRecordDTO, ByteBuffer encoded) {
+        int length = encoded.remaining();
+        long now = System.currentTimeMillis();
+        long stamp = lock.writeLock();
+        try {
+            if (length > arenaCapacity) {
+                droppedCount++;
+                return;
+            }
+            long position = writePosition;
+            int offset = (int) (position % arenaCapacity);
+            if (offset + length > arenaCapacity) {
+                position += arenaCapacity - offset;
+                offset = 0;
+            }
+            evict(position + length, now - maxAgeMs);
+            long seq = nextSeq;
+            int slot = slot(seq);
+            ((Buffer) writeView).position(offset);
+            writeView.put(encoded);
+            seqs[slot] = seq;
+            times[slot] = now;
+            positions[slot] = position;
+            lengths[slot] = length;
+            bizIdIndex.add(slot, seq, logRecordDTO.getBizId());
+            bizTypeIndex.add(slot, seq, logRecordDTO.getBizType());
+            operatorIdIndex.add(slot, seq, logRecordDTO.getOperatorId());
+            writePosition = position + length;
+            nextSeq = seq + 1;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // 淘汰最早的记录，直到条数、内存与保留时间均满足要求
+    private void evict(long end, long expireBefore) {
+        while (tailSeq < nextSeq) {
+            int slot = slot(tailSeq);
+            boolean full = nextSeq - tailSeq >= capacity;
+            boolean overlapped = end - positions[slot] > arenaCapacity;
+            boolean expired = times[slot] < expireBefore;
+            if (!full && !overlapped && !expired) {
+                break;
+            }
+            bizIdIndex.evict(slot, tailSeq);
+            bizTypeIndex.evict(slot, tailSeq);
+            operatorIdIndex.evict(slot, tailSeq);
+            tailSeq++;
+        }
+    }
+
+    private List<LogRecordDTO> find(Index index, String key, long sinceMillis, int limit) {
+        if (index != null && key == null) {
+            return Collections.emptyList();
+        }
+        int max = limit > 0 ? limit : defaultLimit;
+        long cutoff = Math.max(sinceMillis, System.currentTimeMillis() - maxAgeMs);
+        List<byte[]> payloads = null;
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS && payloads == null; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp == 0) {
+                continue;
+            }
+            try {
+                payloads = collect(index, key, cutoff, max);
+            } catch (RuntimeException e) {
+                // 乐观读期间可能读到不一致的数据，校验失败后重试
+                payloads = null;
+            }
+            if (!lock.validate(stamp)) {
+                payloads = null;
+            }
+        }
+        if (payloads == null) {
+            long stamp = lock.readLock();
+            try {
+                payloads = collect(index, key, cutoff, max);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        // 解码在锁外进行
+        List<LogRecordDTO> result = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            result.add(LogRecordBinaryCodec.decode(ByteBuffer.wrap(payload)));
+        }
+        return result;
+    }
+
+    private List<byte[]> collect(Index index, String key, long cutoff, int max) {
+        List<byte[]> payloads = new ArrayList<>(Math.min(max, 16));
+        long tail = tailSeq;
+        long seq;
+        if (index == null) {
+            seq = nextSeq - 1;
+        } else {
+            Long latest = index.latest.get(key);
+            seq = latest == null ? NONE : latest;
+        }
+        ByteBuffer readView = arena.duplicate();
+        while (seq >= tail && payloads.size() < max) {
+            int slot = slot(seq);
+            // 更早的记录只会更旧
+            if (seqs[slot] != seq || times[slot] < cutoff) {
+                break;
+            }
+            byte[] payload = new byte[lengths[slot]];
+            ((Buffer) readView).position((int) (positions[slot] % arenaCapacity));
+            readView.get(payload);
+            payloads.add(payload);
+            seq = index == null ? seq - 1 : index.prev[slot];
+        }
+        return payloads;
+    }
+
+    private int slot(long seq) {
+        return (int) (seq % capacity);
+    }
+
+    /**
+     * 单个字段的二级索引：字段值 -> 最新记录的序号，每条记录保存同一字段值的上一条记录的序号
+     */
+    private static final class Index {
+        private final String[] keys;
+
+        private final long[] prev;
+
+        private final Map<String, Long> latest = new ConcurrentHashMap<>(256);
+
+        private Index(int capacity) {
+            this.keys = new String[capacity];
+            this.prev = new long[capacity];
+        }
+
+        private void add(int slot, long seq, String key) {
+            keys[slot] = key;
+            if (key == null) {
+                prev[slot] = NONE;
+                return;
+            }
+            Long previous = latest.put(key, seq);
+            prev[slot] = previous == null ? NONE : previous;
+        }
+
+        // 该字段值没有更新的记录时移除索引项，索引大小不超过存活记录的字段值个数
+        private void evict(int slot, long seq) {
+            String key = keys[slot];
+            if (key != null) {
+                latest.remove(key, seq);
+                keys[slot] = null;
+            }
+        }
+    }
+}
@@ -1,25 +1,209 @@
 package com.xin.logRecord.thread;
 
 import com.xin.logRecord.configuration.LogRecordProperties;
+import com.xin.logRecord.constant.ExecutorType;
+import com.xin.logRecord.metrics.LogRecordMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Component
-public class LogRecordThreadPool {
+public class LogRecordThreadPool implements DisposableBean {
+    /**
+     * CUSTOM模式下使用的Executor的bean名称
+     */
+    public static final String CUSTOM_EXECUTOR_BEAN_NAME = "logRecordExecutor";
+
     private static final ThreadFactory THREAD_FACTORY = new CustomizableThreadFactory("log-record-");
 
-    private final ExecutorService LOG_RECORD_THREAD_POOL_EXECUTOR_SERVICE;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final ExecutorType executorType;
+
+    private final Executor executor;
+
+    // 由本类创建的线程池在容器关闭时关闭，用户提供的Executor由用户管理
+    private final boolean ownsExecutor;
+
+    // VIRTUAL模式下限制同时写入日志记录服务的任务数，其余虚拟线程在此挂起
+    private final Semaphore virtualPermits;
+
+    // VIRTUAL模式下已提交但未执行完的任务数，虚拟线程按任务创建，需要自行限制积压
+    private final AtomicInteger virtualPending = new AtomicInteger();
+
+    private final int virtualMaxPending;
 
-    public LogRecordThreadPool(LogRecordProperties logRecordProperties) {
-        log.info("LOG_RECORD_THREAD_POOL_EXECUTOR init poolSize [{}]", logRecordProperties.getPoolSize());
-        this.LOG_RECORD_THREAD_POOL_EXECUTOR_SERVICE = new ThreadPoolExecutor(logRecordProperties.getPoolSize(), logRecordProperties.getPoolSize(), 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(1024), THREAD_FACTORY, new ThreadPoolExecutor.CallerRunsPolicy());
+    private final LogRecordMetrics logRecordMetrics;
+
+    public LogRecordThreadPool(LogRecordProperties logRecordProperties, LogRecordMetrics logRecordMetrics) {
+        this(logRecordProperties, logRecordMetrics, null);
+    }
+
+    @Autowired
+    public LogRecordThreadPool(LogRecordProperties logRecordProperties, LogRecordMetrics logRecordMetrics,
+                               @Qualifier(CUSTOM_EXECUTOR_BEAN_NAME) ObjectProvider<Executor> customExecutor) {
+        ExecutorType type = logRecordProperties.getExecutor();
+        Executor created = null;
+        if (type == ExecutorType.CUSTOM) {
+            created = customExecutor == null ? null : customExecutor.getIfAvailable();
+            if (created == null) {
+                throw new IllegalStateException("log-record.executor is CUSTOM but no Executor bean named [" + CUSTOM_EXECUTOR_BEAN_NAME + "] is defined");
+            }
+        } else if (type == ExecutorType.VIRTUAL) {
+            created = newVirtualThreadExecutor();
+            if (created == null) {
+                log.warn("Virtual threads are not available on Java [{}], falling back to FIXED", System.getProperty("java.version"));
+                type = ExecutorType.FIXED;
+            }
+        }
+        this.executorType = type;
+        this.ownsExecutor = type != ExecutorType.CUSTOM;
+        this.virtualPermits = type == ExecutorType.VIRTUAL ? new Semaphore(logRecordProperties.getVirtualMaxConcurrency()) : null;
+        this.virtualMaxPending = logRecordProperties.getVirtualMaxConcurrency() + logRecordProperties.getVirtualQueueCapacity();
+        this.logRecordMetrics = logRecordMetrics;
+        switch (type) {
+            case FORK_JOIN:
+                this.executor = newForkJoinPool(logRecordProperties.getPoolSize());
+                break;
+            case FIXED:
+                this.executor = newFixedThreadPool(logRecordProperties.getPoolSize(), logRecordMetrics);
+                break;
+            default:
+                this.executor = created;
+        }
+        log.info("LOG_RECORD_THREAD_POOL_EXECUTOR init executor [{}] poolSize [{}]", type, logRecordProperties.getPoolSize());
     }
 
+    /**
+     * 提交日志记录任务
+     */
+    public void execute(Runnable task) {
+        if (virtualPermits == null) {
+            executor.execute(task);
+            return;
+        }
+        // 积压已满时与FIXED模式的CallerRunsPolicy一致，由调用线程执行
+        if (virtualPending.incrementAndGet() > virtualMaxPending) {
+            virtualPending.decrementAndGet();
+            logRecordMetrics.recordRejected();
+            task.run();
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    virtualPermits.acquireUninterruptibly();
+                    try {
+                        task.run();
+                    } finally {
+                        virtualPermits.release();
+                    }
+                } finally {
+                    virtualPending.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            virtualPending.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * @deprecated 使用{@link #getExecutor()}，CUSTOM模式下的Executor不一定是ExecutorService
+     */
+    @Deprecated
     public ExecutorService getLogReocrdThreadPoolExecutorService() {
-        return this.LOG_RECORD_THREAD_POOL_EXECUTOR_SERVICE;
+        Executor current = getExecutor();
+        if (current instanceof ExecutorService) {
+            return (ExecutorService) current;
+        }
+        if (current instanceof ThreadPoolTaskExecutor) {
+            return ((ThreadPoolTaskExecutor) current).getThreadPoolExecutor();
+        }
+        throw new IllegalStateException("log-record executor [" + executorType + "] is not an ExecutorService, use getExecutor()");
+    }
+
+    public Executor getExecutor() {
+        return this.executor;
+    }
+
+    public ExecutorType getExecutorType() {
+        return this.executorType;
+    }
+
+    /**
+     * 等待执行的任务数，VIRTUAL模式下为等待信号量的虚拟线程数
+     */
+    public int getQueueSize() {
+        if (virtualPermits != null) {
+            return virtualPermits.getQueueLength();
+        }
+        if (executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executor).getQueue().size();
+        }
+        if (executor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executor).getQueuedSubmissionCount();
+        }
+        if (executor instanceof ThreadPoolTaskExecutor) {
+            return ((ThreadPoolTaskExecutor) executor).getThreadPoolExecutor().getQueue().size();
+        }
+        return 0;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (!ownsExecutor || !(executor instanceof ExecutorService)) {
+            return;
+        }
+        ExecutorService executorService = (ExecutorService) executor;
+        executorService.shutdown();
+        if (!executorService.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("LogRecordThreadPool shutdown timeout, [{}] tasks remaining", getQueueSize());
+        }
+    }
+
+    private static ThreadPoolExecutor newFixedThreadPool(int poolSize, LogRecordMetrics logRecordMetrics) {
+        // 队列已满时由调用线程执行，并计入拒绝次数；线程池关闭后同样由调用线程执行，
+        // 不像CallerRunsPolicy那样静默丢弃，避免记录丢失以及依赖任务执行的分发器状态无法复位
+        RejectedExecutionHandler rejectedExecutionHandler = (runnable, executor) -> {
+            logRecordMetrics.recordRejected();
+            runnable.run();
+        };
+        return new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(1024), THREAD_FACTORY, rejectedExecutionHandler);
+    }
+
+    private static ForkJoinPool newForkJoinPool(int parallelism) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("log-record-fj-" + threadCount.incrementAndGet());
+            return thread;
+        };
+        // asyncMode按提交顺序(FIFO)执行任务
+        return new ForkJoinPool(parallelism, factory, null, true);
+    }
+
+    /**
+     * 通过反射创建虚拟线程执行器，保持以Java 8为编译目标，JDK 21以下返回null
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "log-record-virtual-", 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, threadFactory);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
     }
 }
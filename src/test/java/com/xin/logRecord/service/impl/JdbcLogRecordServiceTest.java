@@ -0,0 +1,240 @@
+package com.xin.logRecord.service.impl;
+
+import com.xin.logRecord.beans.LogRecordDTO;
+import com.xin.logRecord.configuration.LogRecordProperties;
+import com.xin.logRecord.constant.JdbcInsertMode;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JdbcLogRecordServiceTest {
+    private static final AtomicInteger DATABASE_ID = new AtomicInteger();
+
+    private FailingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new FailingDataSource();
+        dataSource.setURL("jdbc:h2:mem:log_record_" + DATABASE_ID.incrementAndGet() + ";DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    void initializeSchemaCreatesTable() throws SQLException {
+        new JdbcLogRecordService(dataSource, jdbc(JdbcInsertMode.BATCH));
+
+        assertEquals(0, count());
+    }
+
+    @Test
+    void batchInsertWritesAllRecords() throws SQLException {
+        JdbcLogRecordService service = new JdbcLogRecordService(dataSource, jdbc(JdbcInsertMode.BATCH));
+
+        service.record(records(25));
+
+        assertEquals(25, count());
+        assertRow("log-7");
+    }
+
+    @Test
+    void multiRowInsertWritesFullAndRemainingRows() throws SQLException {
+        JdbcLogRecordService service = new JdbcLogRecordService(dataSource, jdbc(JdbcInsertMode.MULTI_ROW));
+
+        // batchSize为10，两条满行INSERT加一条5行INSERT
+        service.record(records(25));
+
+        assertEquals(25, count());
+        assertRow("log-24");
+    }
+
+    @Test
+    void nullFieldsAreWrittenAsNull() throws SQLException {
+        JdbcLogRecordService service = new JdbcLogRecordService(dataSource, jdbc(JdbcInsertMode.BATCH));
+        LogRecordDTO logRecordDTO = LogRecordDTO.builder().logId("empty").build();
+
+        service.record(Collections.singletonList(logRecordDTO));
+
+        try (Connection connection = dataSource.connect();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT operate_time, success, execution_time FROM log_record WHERE log_id = 'empty'")) {
+            assertTrue(resultSet.next());
+            assertNull(resultSet.getTimestamp(1));
+            assertNull(resultSet.getObject(2));
+            assertNull(resultSet.getObject(3));
+        }
+    }
+
+    @Test
+    void oversizedTextIsTruncated() throws SQLException {
+        JdbcLogRecordService service = new JdbcLogRecordService(dataSource, jdbc(JdbcInsertMode.BATCH));
+        StringBuilder exception = new StringBuilder();
+        while (exception.length() < JdbcLogRecordService.MAX_TEXT_LENGTH * 2) {
+            exception.append("stack trace line\n");
+        }
+        List<LogRecordDTO> logRecordDTOs = records(3);
+        logRecordDTOs.get(1).setException(exception.toString());
+
+        service.record(logRecordDTOs);
+
+        assertEquals(3, count());
+        try (Connection connection = dataSource.connect();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT exception FROM log_record WHERE log_id = 'log-1'")) {
+            assertTrue(resultSet.next());
+            assertEquals(exception.substring(0, JdbcLogRecordService.MAX_TEXT_LENGTH), resultSet.getString(1));
+        }
+    }
+
+    @Test
+    void transientFailureIsRetried() throws SQLException {
+        JdbcLogRecordService service = new JdbcLogRecordService(dataSource, jdbc(JdbcInsertMode.BATCH));
+        dataSource.failures.set(2);
+        dataSource.failure = () -> new SQLTransientConnectionException("connection reset");
+
+        service.record(records(5));
+
+        assertEquals(0, dataSource.failures.get());
+        assertEquals(5, count());
+    }
+
+    @Test
+    void retriesStopAtMaxRetries() throws SQLException {
+        JdbcLogRecordService service = new JdbcLogRecordService(dataSource, jdbc(JdbcInsertMode.BATCH));
+        dataSource.failures.set(10);
+        dataSource.failure = () -> new SQLTransientConnectionException("connection reset");
+
+        assertThrows(IllegalStateException.class, () -> service.record(records(5)));
+        // 首次写入加maxRetries次重试
+        assertEquals(10 - 1 - 3, dataSource.failures.get());
+        assertEquals(0, count());
+    }
+
+    @Test
+    void nonTransientFailureIsNotRetried() throws SQLException {
+        JdbcLogRecordService service = new JdbcLogRecordService(dataSource, jdbc(JdbcInsertMode.BATCH));
+        dataSource.failures.set(2);
+        dataSource.failure = () -> new SQLSyntaxErrorException("bad sql", "42000");
+
+        assertThrows(IllegalStateException.class, () -> service.record(records(5)));
+        assertEquals(1, dataSource.failures.get());
+        assertEquals(0, count());
+    }
+
+    @Test
+    void failedBatchIsRolledBack() throws SQLException {
+        JdbcLogRecordService service = new JdbcLogRecordService(dataSource, jdbc(JdbcInsertMode.BATCH));
+        List<LogRecordDTO> logRecordDTOs = records(5);
+        // 主键缺失导致整批失败，已写入的记录一并回滚
+        logRecordDTOs.get(3).setLogId(null);
+
+        assertThrows(IllegalStateException.class, () -> service.record(logRecordDTOs));
+        assertEquals(0, count());
+    }
+
+    @Test
+    void invalidTableNameIsRejected() {
+        LogRecordProperties.Jdbc jdbc = jdbc(JdbcInsertMode.BATCH);
+        jdbc.setTableName("log_record; DROP TABLE users");
+
+        assertThrows(IllegalArgumentException.class, () -> new JdbcLogRecordService(dataSource, jdbc));
+    }
+
+    private static LogRecordProperties.Jdbc jdbc(JdbcInsertMode insertMode) {
+        LogRecordProperties.Jdbc jdbc = new LogRecordProperties.Jdbc();
+        jdbc.setInsertMode(insertMode);
+        jdbc.setBatchSize(10);
+        jdbc.setRetryBackoffMs(1);
+        jdbc.setMaxRetryBackoffMs(4);
+        return jdbc;
+    }
+
+    private static List<LogRecordDTO> records(int size) {
+        List<LogRecordDTO> logRecordDTOs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            logRecordDTOs.add(LogRecordDTO.builder()
+                    .logId("log-" + i)
+                    .operateDate(new Date(1_600_000_000_000L + i))
+                    .bizId("order-" + i)
+                    .bizType("order")
+                    .operatorId("user-" + i)
+                    .success(i % 2 == 0)
+                    .templateMsg("修改了订单" + i)
+                    .extra("{\"index\":" + i + "}")
+                    .executionTime((long) i)
+                    .build());
+        }
+        return logRecordDTOs;
+    }
+
+    private int count() throws SQLException {
+        try (Connection connection = dataSource.connect();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM log_record")) {
+            assertTrue(resultSet.next());
+            return resultSet.getInt(1);
+        }
+    }
+
+    private void assertRow(String logId) throws SQLException {
+        int i = Integer.parseInt(logId.substring("log-".length()));
+        try (Connection connection = dataSource.connect();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT operate_time, biz_id, biz_type, operator_id, success, template_msg, exception, extra, execution_time"
+                     + " FROM log_record WHERE log_id = '" + logId + "'")) {
+            assertTrue(resultSet.next());
+            assertEquals(1_600_000_000_000L + i, resultSet.getTimestamp(1).getTime());
+            assertEquals("order-" + i, resultSet.getString(2));
+            assertEquals("order", resultSet.getString(3));
+            assertEquals("user-" + i, resultSet.getString(4));
+            assertEquals(i % 2 == 0, resultSet.getBoolean(5));
+            assertEquals("修改了订单" + i, resultSet.getString(6));
+            assertNull(resultSet.getString(7));
+            assertEquals("{\"index\":" + i + "}", resultSet.getString(8));
+            assertEquals(i, resultSet.getLong(9));
+            assertFalse(resultSet.next());
+        }
+    }
+
+    /**
+     * 获取连接时按设定次数抛出指定异常，用于验证重试
+     */
+    private static class FailingDataSource extends JdbcDataSource {
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private volatile SQLExceptionSupplier failure;
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (failures.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                throw failure.get();
+            }
+            return super.getConnection();
+        }
+
+        // 校验结果时使用，不受模拟失败影响
+        private Connection connect() throws SQLException {
+            return super.getConnection();
+        }
+    }
+
+    private interface SQLExceptionSupplier {
+        SQLException get();
+    }
+}